@@ -0,0 +1,97 @@
+package pathfinder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import shortestpath.Transport;
+import shortestpath.WorldPointUtil;
+import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.NeighborVisitor;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Neighbour generation, with and without creating nodes, and flag lookups on random tiles of the mainland,
+ * the two operations every expanded node pays for.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionMapBenchmark {
+    // A power of two, so the next tile is picked with a mask
+    private static final int TILES = 4096;
+
+    private SplitFlagMap flags;
+    private CollisionMap map;
+    private PathfinderConfig config;
+    private final Node[] nodes = new Node[TILES];
+    private final int[] xs = new int[TILES];
+    private final int[] ys = new int[TILES];
+    private int next;
+
+    // Sums the neighbor positions so the work cannot be left out
+    private int visitedSum;
+    private final NeighborVisitor sumNeighbors = new NeighborVisitor() {
+        @Override
+        public void walk(Node node, int packedPosition, int stepCost) {
+            visitedSum += packedPosition;
+        }
+
+        @Override
+        public void transport(Node node, int packedPosition, Transport transport, int transportCost) {
+            visitedSum += packedPosition;
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        flags = SplitFlagMap.fromResources();
+        config = StubProfile.pathfinderConfig(flags, Transport.loadAllFromResources());
+        map = config.getMap();
+
+        Random random = new Random(42);
+        for (int i = 0; i < TILES; i++) {
+            xs[i] = 2900 + random.nextInt(512);
+            ys[i] = 3100 + random.nextInt(512);
+            nodes[i] = new Node(WorldPointUtil.packWorldPoint(xs[i], ys[i], 0), null);
+        }
+    }
+
+    @Benchmark
+    public List<Node> getNeighbors() {
+        return map.getNeighbors(nodes[next++ & (TILES - 1)], config, config.getSearchSettings());
+    }
+
+    @Benchmark
+    public int visitNeighbors() {
+        visitedSum = 0;
+        map.visitNeighbors(nodes[next++ & (TILES - 1)], config, config.getSearchSettings(), sumNeighbors);
+        return visitedSum;
+    }
+
+    @Benchmark
+    public boolean flagMapGet() {
+        final int i = next++ & (TILES - 1);
+        return flags.get(xs[i], ys[i], 0, 0);
+    }
+
+    @Benchmark
+    public boolean isBlocked() {
+        final int i = next++ & (TILES - 1);
+        return map.isBlocked(xs[i], ys[i], 0);
+    }
+}
@@ -0,0 +1,87 @@
+package pathfinder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import shortestpath.Transport;
+import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Whole searches over a fixed set of routes, from a short walk to crossing the map, with and without teleports,
+ * and with and without cost areas. The path cache is cleared before every search so each one is searched in full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathfinderBenchmark {
+    private static final Map<String, WorldPoint[]> ROUTES = new HashMap<>();
+    // Lumbridge, Draynor, Varrock, Falador and the road north of Lumbridge
+    private static final String TOWN_COST_AREAS = "3200 3200 3240 3240 2\n3080 3230 3110 3260 3\n" +
+        "3180 3380 3260 3450 2\n2940 3330 3030 3400 2\n3230 3240 3260 3350 4";
+
+    static {
+        ROUTES.put("lumbridge-draynor", route(3222, 3218, 0, 3093, 3244, 0));
+        ROUTES.put("lumbridge-varrock", route(3222, 3218, 0, 3213, 3428, 0));
+        ROUTES.put("varrock-falador", route(3213, 3428, 0, 2965, 3380, 0));
+        ROUTES.put("lumbridge-camelot", route(3222, 3218, 0, 2757, 3477, 0));
+        ROUTES.put("lumbridge-ardougne", route(3222, 3218, 0, 2662, 3305, 0));
+        ROUTES.put("falador-dwarven-mine", route(2965, 3380, 0, 3045, 9780, 0));
+        ROUTES.put("edgeville-wilderness", route(3094, 3491, 0, 3236, 3635, 0));
+    }
+
+    @Param({"lumbridge-draynor", "lumbridge-varrock", "varrock-falador", "lumbridge-camelot",
+        "lumbridge-ardougne", "falador-dwarven-mine", "edgeville-wilderness"})
+    private String route;
+
+    // Whether teleports, spells and items may be used; without them every route is mostly walked
+    @Param({"true", "false"})
+    private boolean teleports;
+
+    // Without cost areas a search should be as fast as before there were any; with them, the town centres
+    // and the roads between them that most routes cross cost more
+    @Param({"none", "towns"})
+    private String costAreas;
+
+    private PathfinderConfig config;
+    private WorldPoint start;
+    private WorldPoint target;
+
+    @Setup
+    public void setUp() {
+        config = StubProfile.pathfinderConfig(SplitFlagMap.fromResources(), Transport.loadAllFromResources(), teleports,
+            "towns".equals(costAreas) ? TOWN_COST_AREAS : "");
+        start = ROUTES.get(route)[0];
+        target = ROUTES.get(route)[1];
+    }
+
+    @Benchmark
+    public Pathfinder search() {
+        config.getPathCache().clear();
+        Pathfinder pathfinder = new Pathfinder(config, start, target);
+        while (!pathfinder.isDone()) {
+            Thread.yield();
+        }
+        return pathfinder;
+    }
+
+    private static WorldPoint[] route(int startX, int startY, int startPlane, int targetX, int targetY, int targetPlane) {
+        return new WorldPoint[]{new WorldPoint(startX, startY, startPlane), new WorldPoint(targetX, targetY, targetPlane)};
+    }
+}
@@ -0,0 +1,35 @@
+package pathfinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import shortestpath.Transport;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Loading the collision map and the transports, which the plugin does on start up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceBenchmark {
+    @Benchmark
+    public SplitFlagMap splitFlagMapFromResources() {
+        return SplitFlagMap.fromResources();
+    }
+
+    @Benchmark
+    public Map<WorldPoint, List<Transport>> transportLoadAllFromResources() {
+        return Transport.loadAllFromResources();
+    }
+}
@@ -0,0 +1,62 @@
+package pathfinder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import shortestpath.WorldPointUtil;
+import shortestpath.pathfinder.VisitedTiles;
+
+/**
+ * Setting and reading tiles of the visited set, spread over enough regions that region lookups are part of the cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisitedTilesBenchmark {
+    private static final int TILES = 4096;
+
+    private final int[] tiles = new int[TILES];
+    private VisitedTiles visited;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < TILES; i++) {
+            tiles[i] = WorldPointUtil.packWorldPoint(2900 + random.nextInt(512), 3100 + random.nextInt(512), random.nextInt(4));
+        }
+        visited = new VisitedTiles();
+        for (int i = 0; i < TILES; i += 2) {
+            visited.set(tiles[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean set() {
+        return visited.set(tiles[next++ & (TILES - 1)]);
+    }
+
+    @Benchmark
+    public boolean get() {
+        return visited.get(tiles[next++ & (TILES - 1)]);
+    }
+
+    // What a search pays to start over with an empty set
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public VisitedTiles create() {
+        return new VisitedTiles();
+    }
+}
@@ -0,0 +1,166 @@
+package shortestpath;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import shortestpath.pathfinder.CollisionMap;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * The collision map on the world map as one image per region and plane, with a pixel per tile, so a frame
+ * draws an image per visible region rather than a rectangle per blocked tile. Images are built on a
+ * background thread the first time their region is on the map, and the least recently drawn ones are dropped.
+ * When the collision map is patched only the images of the regions the patch changed are built again.
+ */
+class CollisionMapLayer {
+    // Images are one bit per tile, so this is about half a MB
+    private static final int MAX_IMAGES = 1024;
+    // Stands in for regions without blocked tiles, which are not drawn
+    private static final BufferedImage EMPTY = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_BINARY);
+
+    private final Map<Integer, RegionImage> images = new LinkedHashMap<Integer, RegionImage>(MAX_IMAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, RegionImage> eldest) {
+            return size() > MAX_IMAGES;
+        }
+    };
+    private final Set<Integer> building = new HashSet<>();
+    // Started when the first image is built, and stopped when the plugin shuts down
+    private ExecutorService executor;
+
+    private CollisionMap map;
+    private Color colour;
+    // Images built for an earlier map or colour are discarded
+    private int generation;
+
+    /**
+     * Draws the images of the regions on the map, and starts building those that are missing.
+     */
+    void draw(Graphics2D graphics, WorldMapTransform transform, CollisionMap map, Color colour, int plane) {
+        synchronized (this) {
+            if (map != this.map || !colour.equals(this.colour)) {
+                this.map = map;
+                this.colour = colour;
+                images.clear();
+                building.clear();
+                generation++;
+            }
+        }
+
+        final int halfTileWidth = (transform.mapX(1) - transform.mapX(0)) / 2;
+        final int halfTileHeight = (transform.mapY(0) - transform.mapY(1)) / 2;
+        final int minRegionX = Math.max(0, transform.getMinVisibleX()) / REGION_SIZE;
+        final int maxRegionX = Math.max(0, transform.getMaxVisibleX()) / REGION_SIZE;
+        final int minRegionY = Math.max(0, transform.getMinVisibleY()) / REGION_SIZE;
+        final int maxRegionY = Math.max(0, transform.getMaxVisibleY()) / REGION_SIZE;
+        for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+            for (int regionY = minRegionY; regionY <= maxRegionY; regionY++) {
+                BufferedImage image = getImage(regionX, regionY, plane);
+                if (image == null || image == EMPTY) {
+                    continue;
+                }
+
+                final int baseX = regionX * REGION_SIZE;
+                final int baseY = regionY * REGION_SIZE;
+                final int left = transform.mapX(baseX) - halfTileWidth;
+                final int right = transform.mapX(baseX + REGION_SIZE) - halfTileWidth;
+                final int top = transform.mapY(baseY + REGION_SIZE - 1) - halfTileHeight;
+                final int bottom = transform.mapY(baseY - 1) - halfTileHeight;
+                graphics.drawImage(image, left, top, right - left, bottom - top, null);
+            }
+        }
+    }
+
+    // An out of date image is drawn until the new one has been built
+    private synchronized BufferedImage getImage(int regionX, int regionY, int plane) {
+        final int key = (((regionX << 8) | regionY) << 2) | plane;
+        final int revision = revision(map, regionX, regionY);
+        RegionImage image = images.get(key);
+        if ((image == null || image.revision != revision) && building.add(key)) {
+            // Of the version the revision is of, as the map itself moves on when the client thread gets it again
+            final CollisionMap map = this.map.copy();
+            final Color colour = this.colour;
+            final int generation = this.generation;
+            if (executor == null) {
+                executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "shortest-path-collision-layer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            executor.execute(() -> {
+                BufferedImage built = build(map, colour, regionX * REGION_SIZE, regionY * REGION_SIZE, plane);
+                synchronized (this) {
+                    if (generation == this.generation) {
+                        images.put(key, new RegionImage(built, revision));
+                        building.remove(key);
+                    }
+                }
+            });
+        }
+        return image == null ? null : image.image;
+    }
+
+    /**
+     * Stops the thread images are built on and drops the images, which are built again when the layer is next drawn.
+     */
+    synchronized void shutDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        map = null;
+        images.clear();
+        building.clear();
+        generation++;
+    }
+
+    // Whether the tiles along the south and west edges of a region are blocked also depends on the regions
+    // to the south and west, so their changes count as well
+    private static int revision(CollisionMap map, int regionX, int regionY) {
+        return Math.max(map.getRevision(regionX, regionY),
+            Math.max(map.getRevision(regionX, regionY - 1), map.getRevision(regionX - 1, regionY)));
+    }
+
+    private static BufferedImage build(CollisionMap map, Color colour, int baseX, int baseY, int plane) {
+        IndexColorModel colours = new IndexColorModel(1, 2,
+            new byte[]{0, (byte) colour.getRed()},
+            new byte[]{0, (byte) colour.getGreen()},
+            new byte[]{0, (byte) colour.getBlue()},
+            new byte[]{0, (byte) colour.getAlpha()});
+        BufferedImage image = new BufferedImage(REGION_SIZE, REGION_SIZE, BufferedImage.TYPE_BYTE_BINARY, colours);
+        WritableRaster raster = image.getRaster();
+
+        boolean blocked = false;
+        for (int x = 0; x < REGION_SIZE; x++) {
+            for (int y = 0; y < REGION_SIZE; y++) {
+                if (map.isBlocked(baseX + x, baseY + y, plane)) {
+                    // Rows of the image run from north to south
+                    raster.setSample(x, REGION_SIZE - 1 - y, 0, 1);
+                    blocked = true;
+                }
+            }
+        }
+        return blocked ? image : EMPTY;
+    }
+
+    private static class RegionImage {
+        final BufferedImage image;
+        // The revision of the collision map the image was built from
+        final int revision;
+
+        RegionImage(BufferedImage image, int revision) {
+            this.image = image;
+            this.revision = revision;
+        }
+    }
+}
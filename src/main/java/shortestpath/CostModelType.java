@@ -0,0 +1,7 @@
+package shortestpath;
+
+public enum CostModelType {
+    STEPS,
+    WALKING,
+    RUNNING
+}
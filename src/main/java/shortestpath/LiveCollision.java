@@ -0,0 +1,116 @@
+package shortestpath;
+
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.Constants;
+import shortestpath.pathfinder.CollisionPatch;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Compares the collision of the loaded scene with the collision map, and patches the tiles that differ, such as
+ * tiles that have been opened up or blocked for an event since the map was made. The scene is only looked at
+ * again once it has been loaded anew or an object in it has spawned or despawned, and the client's collision
+ * flags are kept from tick to tick, so then only the columns of the scene whose flags changed are compared.
+ * <p>
+ * Tiles blocked only by walls keep what the bundled map says, as a closed door is usually one the player can
+ * open. Instances are left out, as their tiles are copies of other places.
+ */
+class LiveCollision {
+    // The client blocks the outermost tile of the scene and the five nearest its north and east edges,
+    // so these are the tiles whose north and east neighbours have their real flags
+    private static final int MIN_SCENE = 1;
+    private static final int MAX_SCENE = Constants.SCENE_SIZE - 7;
+    private static final int BLOCK_FULL = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+    private static final int BLOCK_NORTH = CollisionDataFlag.BLOCK_MOVEMENT_NORTH | BLOCK_FULL;
+    private static final int BLOCK_SOUTH = CollisionDataFlag.BLOCK_MOVEMENT_SOUTH | BLOCK_FULL;
+    private static final int BLOCK_EAST = CollisionDataFlag.BLOCK_MOVEMENT_EAST | BLOCK_FULL;
+    private static final int BLOCK_WEST = CollisionDataFlag.BLOCK_MOVEMENT_WEST | BLOCK_FULL;
+
+    private final SplitFlagMap map;
+    private int baseX = -1;
+    private int baseY = -1;
+    // Whether an object that may block tiles has spawned or despawned since the scene was last compared
+    private boolean sceneChanged = true;
+    // The client's collision flags when they were last compared, by plane, scene x and scene y
+    private final int[][][] flags = new int[Constants.MAX_Z][Constants.SCENE_SIZE][Constants.SCENE_SIZE];
+
+    LiveCollision(SplitFlagMap map) {
+        this.map = map;
+    }
+
+    /**
+     * Marks the collision flags of the scene as possibly changed, such as when an object spawns or despawns.
+     */
+    void sceneChanged() {
+        sceneChanged = true;
+    }
+
+    /**
+     * Returns the tiles of the scene whose collision differs from the map, or null if there are none.
+     */
+    CollisionPatch update(Client client) {
+        final boolean newScene = client.getBaseX() != baseX || client.getBaseY() != baseY;
+        if (!newScene && !sceneChanged) {
+            return null;
+        }
+
+        CollisionData[] collisionMaps = client.getCollisionMaps();
+        if (client.isInInstancedRegion() || collisionMaps == null) {
+            baseX = -1;
+            return null;
+        }
+
+        sceneChanged = false;
+        CollisionPatch patch = new CollisionPatch();
+        baseX = client.getBaseX();
+        baseY = client.getBaseY();
+        for (int plane = 0; plane < collisionMaps.length && plane < Constants.MAX_Z; plane++) {
+            final int[][] sceneFlags = collisionMaps[plane].getFlags();
+            final int[][] lastFlags = flags[plane];
+            boolean nextColumnChanged = newScene || changed(sceneFlags, lastFlags, MAX_SCENE + 1);
+            // From east to west, as the east flag of a tile also depends on the column to its east
+            for (int x = MAX_SCENE; x >= MIN_SCENE; x--) {
+                final boolean columnChanged = newScene || changed(sceneFlags, lastFlags, x);
+                if (columnChanged || nextColumnChanged) {
+                    compare(patch, sceneFlags, x, plane);
+                }
+                nextColumnChanged = columnChanged;
+            }
+            for (int x = 0; x < Constants.SCENE_SIZE; x++) {
+                System.arraycopy(sceneFlags[x], 0, lastFlags[x], 0, Constants.SCENE_SIZE);
+            }
+        }
+        return patch.isEmpty() ? null : patch;
+    }
+
+    private static boolean changed(int[][] sceneFlags, int[][] lastFlags, int x) {
+        for (int y = 0; y < Constants.SCENE_SIZE; y++) {
+            if (sceneFlags[x][y] != lastFlags[x][y]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void compare(CollisionPatch patch, int[][] sceneFlags, int x, int plane) {
+        final int worldX = baseX + x;
+        for (int y = MIN_SCENE; y <= MAX_SCENE; y++) {
+            final int worldY = baseY + y;
+            final int tile = sceneFlags[x][y];
+            final int north = sceneFlags[x][y + 1];
+            final int east = sceneFlags[x + 1][y];
+            final boolean n = open(tile, north, BLOCK_NORTH, BLOCK_SOUTH) ||
+                (map.getBase(worldX, worldY, plane, 0) && open(tile, north, BLOCK_FULL, BLOCK_FULL));
+            final boolean e = open(tile, east, BLOCK_EAST, BLOCK_WEST) ||
+                (map.getBase(worldX, worldY, plane, 1) && open(tile, east, BLOCK_FULL, BLOCK_FULL));
+            if (n != map.get(worldX, worldY, plane, 0) || e != map.get(worldX, worldY, plane, 1)) {
+                patch.set(worldX, worldY, plane, (n ? 1 : 0) | (e ? 2 : 0));
+            }
+        }
+    }
+
+    private static boolean open(int from, int to, int blockedFrom, int blockedTo) {
+        return (from & blockedFrom) == 0 && (to & blockedTo) == 0;
+    }
+}
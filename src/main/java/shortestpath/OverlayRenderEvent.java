@@ -0,0 +1,18 @@
+package shortestpath;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("shortestpath.OverlayRender")
+@Label("Overlay Render")
+@Category("Shortest Path")
+class OverlayRenderEvent extends Event {
+    @Label("Overlay")
+    String overlay;
+
+    OverlayRenderEvent(String overlay) {
+        this.overlay = overlay;
+    }
+}
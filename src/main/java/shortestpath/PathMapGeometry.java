@@ -0,0 +1,104 @@
+package shortestpath;
+
+import shortestpath.pathfinder.PackedPath;
+
+/**
+ * World map geometry of a path. The path is split into runs of tiles, and the world bounds of each run are
+ * kept so runs that are off the map are skipped. The canvas rectangle of a tile is mapped when its run is
+ * first drawn and kept until the path, the zoom or the map position changes.
+ */
+class PathMapGeometry {
+    private static final int RUN_LENGTH = 32;
+
+    private PackedPath path = PackedPath.EMPTY;
+
+    // Min x, min y, max x and max y of each run, including the last tile of the previous run so lines between runs are kept
+    private int[] runBounds = new int[0];
+    // The transform revision each run was last mapped with
+    private int[] runRevisions = new int[0];
+    // Canvas x, y, width and height of each tile
+    private int[] rects = new int[0];
+
+    /**
+     * Rebuilds the run bounds if the path has changed.
+     */
+    void update(PackedPath path) {
+        if (path == this.path) {
+            return;
+        }
+
+        this.path = path;
+        final int runs = (path.size() + RUN_LENGTH - 1) / RUN_LENGTH;
+        runBounds = new int[runs * 4];
+        runRevisions = new int[runs];
+        rects = new int[path.size() * 4];
+        for (int run = 0; run < runs; ++run) {
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            for (int i = Math.max(0, run * RUN_LENGTH - 1); i < runEnd(run); ++i) {
+                minX = Math.min(minX, path.getX(i));
+                minY = Math.min(minY, path.getY(i));
+                maxX = Math.max(maxX, path.getX(i));
+                maxY = Math.max(maxY, path.getY(i));
+            }
+            runBounds[run * 4] = minX;
+            runBounds[run * 4 + 1] = minY;
+            runBounds[run * 4 + 2] = maxX;
+            runBounds[run * 4 + 3] = maxY;
+        }
+    }
+
+    int getRunCount() {
+        return runRevisions.length;
+    }
+
+    int runStart(int run) {
+        return run * RUN_LENGTH;
+    }
+
+    int runEnd(int run) {
+        return Math.min(path.size(), (run + 1) * RUN_LENGTH);
+    }
+
+    /**
+     * Whether the run may be on the map. Maps the tiles of a visible run if the map has moved since they were last mapped.
+     */
+    boolean isVisible(int run, WorldMapTransform transform) {
+        if (!transform.isVisible(runBounds[run * 4], runBounds[run * 4 + 1], runBounds[run * 4 + 2], runBounds[run * 4 + 3])) {
+            return false;
+        }
+
+        if (runRevisions[run] != transform.getRevision()) {
+            for (int i = runStart(run); i < runEnd(run); ++i) {
+                final int startX = transform.mapX(path.getX(i));
+                final int startY = transform.mapY(path.getY(i));
+                final int width = transform.mapX(path.getX(i) + 1) - startX;
+                final int height = transform.mapY(path.getY(i) - 1) - startY;
+                rects[i * 4] = startX - width / 2;
+                rects[i * 4 + 1] = startY - height / 2;
+                rects[i * 4 + 2] = width;
+                rects[i * 4 + 3] = height;
+            }
+            runRevisions[run] = transform.getRevision();
+        }
+        return true;
+    }
+
+    int getX(int index) {
+        return rects[index * 4];
+    }
+
+    int getY(int index) {
+        return rects[index * 4 + 1];
+    }
+
+    int getWidth(int index) {
+        return rects[index * 4 + 2];
+    }
+
+    int getHeight(int index) {
+        return rects[index * 4 + 3];
+    }
+}
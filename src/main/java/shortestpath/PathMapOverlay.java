@@ -7,7 +7,6 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.geom.Area;
-import java.util.ArrayList;
 import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.Point;
@@ -18,16 +17,37 @@ import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
-import net.runelite.client.ui.overlay.worldmap.WorldMapOverlay;
-import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.CostGrid;
+import shortestpath.pathfinder.PackedPath;
+import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.TransportIndex;
+
+import static net.runelite.api.Constants.REGION_SIZE;
 
 public class PathMapOverlay extends Overlay {
+    // Green for the cheapest tiles through to red for the most expensive ones
+    private static final Color[] HEAT_COLOURS = new Color[16];
+
+    static {
+        for (int i = 0; i < HEAT_COLOURS.length; i++) {
+            float hue = (1f / 3f) * (1f - (float) i / (HEAT_COLOURS.length - 1));
+            Color colour = Color.getHSBColor(hue, 1f, 1f);
+            HEAT_COLOURS[i] = new Color(colour.getRed(), colour.getGreen(), colour.getBlue(), 96);
+        }
+    }
+
+    private static final BasicStroke TRANSPORT_STROKE =
+        new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0);
+
     private final Client client;
     private final ShortestPathPlugin plugin;
     private final ShortestPathConfig config;
-
-    @Inject
-    private WorldMapOverlay worldMapOverlay;
+    // Reused for every frame, so nothing is allocated while rendering; null if the runtime has no flight recorder
+    private final OverlayRenderEvent renderEvent =
+        Util.isFlightRecorderAvailable() ? new OverlayRenderEvent("PathMapOverlay") : null;
+    private final WorldMapTransform transform = new WorldMapTransform();
+    private final PathMapGeometry pathGeometry = new PathMapGeometry();
+    private final CollisionMapLayer collisionMapLayer = new CollisionMapLayer();
 
     @Inject
     private PathMapOverlay(Client client, ShortestPathPlugin plugin, ShortestPathConfig config) {
@@ -40,8 +60,28 @@ public class PathMapOverlay extends Overlay {
         drawAfterLayer(WidgetInfo.WORLD_MAP_VIEW);
     }
 
+    /**
+     * Stops building the images of the collision map layer, when the plugin shuts down.
+     */
+    void shutDown() {
+        collisionMapLayer.shutDown();
+    }
+
     @Override
     public Dimension render(Graphics2D graphics) {
+        if (renderEvent == null) {
+            return renderOverlay(graphics);
+        }
+
+        renderEvent.begin();
+        try {
+            return renderOverlay(graphics);
+        } finally {
+            renderEvent.commit();
+        }
+    }
+
+    private Dimension renderOverlay(Graphics2D graphics) {
         if (!config.drawMap()) {
             return null;
         }
@@ -52,16 +92,38 @@ public class PathMapOverlay extends Overlay {
 
         Area worldMapClipArea = getWorldMapClipArea(client.getWidget(WidgetInfo.WORLD_MAP_VIEW).getBounds());
         graphics.setClip(worldMapClipArea);
+        transform.update(client);
 
         if (config.drawCollisionMap()) {
-            graphics.setColor(config.colourCollisionMap());
+            collisionMapLayer.draw(graphics, transform, plugin.getMap(), config.colourCollisionMap(), client.getPlane());
+        }
+
+        Pathfinder reachableArea = plugin.getReachableArea();
+        if (reachableArea != null && reachableArea.isDone()) {
             Rectangle extent = getWorldMapExtent(client.getWidget(WidgetInfo.WORLD_MAP_VIEW).getBounds());
-            final CollisionMap map = plugin.getMap();
+            final CostGrid reachable = reachableArea.getReachable();
+            final int maxCost = Math.max(1, reachableArea.getMaxCost());
             final int z = client.getPlane();
-            for (int x = extent.x; x < (extent.x + extent.width + 1); x++) {
-                for (int y = extent.y - extent.height; y < (extent.y + 1); y++) {
-                    if (map.isBlocked(x, y, z)) {
-                        drawOnMap(graphics, new WorldPoint(x, y, z), false);
+            final int minX = extent.x;
+            final int maxX = extent.x + extent.width;
+            final int minY = extent.y - extent.height;
+            final int maxY = extent.y;
+            // Region by region, so the regions the search did not reach are skipped without looking at their tiles
+            for (int regionX = Math.max(0, minX) / REGION_SIZE; regionX <= Math.max(0, maxX) / REGION_SIZE; regionX++) {
+                for (int regionY = Math.max(0, minY) / REGION_SIZE; regionY <= Math.max(0, maxY) / REGION_SIZE; regionY++) {
+                    final int baseX = regionX * REGION_SIZE;
+                    final int baseY = regionY * REGION_SIZE;
+                    if (!reachable.hasRegion(baseX, baseY, z)) {
+                        continue;
+                    }
+                    for (int x = Math.max(minX, baseX); x <= Math.min(maxX, baseX + REGION_SIZE - 1); x++) {
+                        for (int y = Math.max(minY, baseY); y <= Math.min(maxY, baseY + REGION_SIZE - 1); y++) {
+                            final int cost = reachable.get(x, y, z);
+                            if (cost != CostGrid.UNREACHED) {
+                                graphics.setColor(HEAT_COLOURS[Math.min(cost, maxCost) * (HEAT_COLOURS.length - 1) / maxCost]);
+                                drawOnMap(graphics, x, y);
+                            }
+                        }
                     }
                 }
             }
@@ -69,71 +131,80 @@ public class PathMapOverlay extends Overlay {
 
         if (config.drawTransports()) {
             graphics.setColor(Color.WHITE);
-            for (WorldPoint a : plugin.getTransports().keySet()) {
-                Point mapA = worldMapOverlay.mapWorldPointToGraphicsPoint(a);
-                if (mapA == null || !worldMapClipArea.contains(mapA.getX(), mapA.getY())) {
-                    continue;
-                }
-
-                for (Transport b : plugin.getTransports().getOrDefault(a, new ArrayList<>())) {
-                    Point mapB = worldMapOverlay.mapWorldPointToGraphicsPoint(b.getDestination());
-                    if (mapB == null || !worldMapClipArea.contains(mapB.getX(), mapB.getY())) {
-                        continue;
+            final TransportIndex index = plugin.getTransportIndex();
+            final int minRegionX = Math.max(0, transform.getMinVisibleX()) / REGION_SIZE;
+            final int maxRegionX = Math.max(0, transform.getMaxVisibleX()) / REGION_SIZE;
+            final int minRegionY = Math.max(0, transform.getMinVisibleY()) / REGION_SIZE;
+            final int maxRegionY = Math.max(0, transform.getMaxVisibleY()) / REGION_SIZE;
+            for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+                for (int regionY = minRegionY; regionY <= maxRegionY; regionY++) {
+                    for (WorldPoint a : index.getOrigins(regionX, regionY)) {
+                        final int mapAX = transform.mapX(a.getX());
+                        final int mapAY = transform.mapY(a.getY());
+                        List<Transport> transports = plugin.getTransports().get(a);
+                        if (transports == null || !worldMapClipArea.contains(mapAX, mapAY)) {
+                            continue;
+                        }
+
+                        for (Transport b : transports) {
+                            final int mapBX = transform.mapX(b.getDestination().getX());
+                            final int mapBY = transform.mapY(b.getDestination().getY());
+                            if (!worldMapClipArea.contains(mapBX, mapBY)) {
+                                continue;
+                            }
+
+                            graphics.drawLine(mapAX, mapAY, mapBX, mapBY);
+                        }
                     }
-
-                    graphics.drawLine(mapA.getX(), mapA.getY(), mapB.getX(), mapB.getY());
                 }
             }
         }
 
         if (plugin.getPathfinder() != null) {
             Color colour = plugin.getPathfinder().isDone() ? config.colourPath() : config.colourPathCalculating();
-            List<WorldPoint> path = plugin.getPathfinder().getPath();
-            for (int i = 0; i < path.size(); i++) {
-                graphics.setColor(colour);
-                WorldPoint point = path.get(i);
-                WorldPoint last = (i > 0) ? path.get(i - 1) : point;
-                if (point.distanceTo(last) > 1) {
-                    drawOnMap(graphics, last, point, true);
+            PackedPath path = plugin.getPathfinder().getPath();
+            pathGeometry.update(path);
+            Point cursorPos = client.getMouseCanvasPosition();
+            for (int run = 0; run < pathGeometry.getRunCount(); run++) {
+                if (!pathGeometry.isVisible(run, transform)) {
+                    continue;
+                }
+                for (int i = pathGeometry.runStart(run); i < pathGeometry.runEnd(run); i++) {
+                    graphics.setColor(colour);
+                    if (i > 0 && WorldPointUtil.distanceBetween(path.get(i - 1), path.get(i)) > 1) {
+                        graphics.setStroke(TRANSPORT_STROKE);
+                        graphics.drawLine(
+                            transform.mapX(path.getX(i - 1)), transform.mapY(path.getY(i - 1)),
+                            transform.mapX(path.getX(i)), transform.mapY(path.getY(i)));
+                    }
+
+                    final int x = pathGeometry.getX(i);
+                    final int y = pathGeometry.getY(i);
+                    final int width = pathGeometry.getWidth(i);
+                    final int height = pathGeometry.getHeight(i);
+                    if (cursorPos.getX() >= x && cursorPos.getX() <= x + width &&
+                        cursorPos.getY() >= y && cursorPos.getY() <= y + height) {
+                        graphics.setColor(colour.darker());
+                    }
+                    graphics.fillRect(x, y, width, height);
                 }
-                drawOnMap(graphics, point, true);
             }
         }
 
         return null;
     }
 
-    private void drawOnMap(Graphics2D graphics, WorldPoint point, boolean checkHover) {
-        drawOnMap(graphics, point, point.dx(1).dy(-1), checkHover);
-    }
-
-    private void drawOnMap(Graphics2D graphics, WorldPoint point, WorldPoint offset, boolean checkHover) {
-        Point start = plugin.mapWorldPointToGraphicsPoint(point);
-        Point end = plugin.mapWorldPointToGraphicsPoint(offset);
-
-        if (start == null || end == null) {
-            return;
-        }
-
-        int x = start.getX();
-        int y = start.getY();
-        final int width = end.getX() - x;
-        final int height = end.getY() - y;
-        x -= width / 2;
-        y -= height / 2;
-
-        if (point.distanceTo(offset) > 1) {
-            graphics.setStroke(new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0));
-            graphics.drawLine(start.getX(), start.getY(), end.getX(), end.getY());
-        } else {
-            Point cursorPos = client.getMouseCanvasPosition();
-            if (checkHover &&
-                cursorPos.getX() >= x && cursorPos.getX() <= (end.getX() - width / 2) &&
-                cursorPos.getY() >= y && cursorPos.getY() <= (end.getY() - width / 2)) {
-                graphics.setColor(graphics.getColor().darker());
-            }
-            graphics.fillRect(x, y, width, height);
-        }
+    private void drawOnMap(Graphics2D graphics, int worldX, int worldY) {
+        final int startX = transform.mapX(worldX);
+        final int startY = transform.mapY(worldY);
+        final int endX = transform.mapX(worldX + 1);
+        final int endY = transform.mapY(worldY - 1);
+
+        final int width = endX - startX;
+        final int height = endY - startY;
+        final int x = startX - width / 2;
+        final int y = startY - height / 2;
+        graphics.fillRect(x, y, width, height);
     }
 
     private Area getWorldMapClipArea(Rectangle baseRectangle) {
@@ -9,7 +9,6 @@ import java.util.Arrays;
 import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.Point;
-import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.widgets.WidgetID;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.client.ui.FontManager;
@@ -18,6 +17,7 @@ import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
+import shortestpath.pathfinder.PackedPath;
 
 public class PathMapTooltipOverlay extends Overlay {
     private static final int TOOLTIP_OFFSET_HEIGHT = 25;
@@ -29,6 +29,11 @@ public class PathMapTooltipOverlay extends Overlay {
     private final Client client;
     private final ShortestPathPlugin plugin;
     private final ShortestPathConfig config;
+    // Reused for every frame, so nothing is allocated while rendering; null if the runtime has no flight recorder
+    private final OverlayRenderEvent renderEvent =
+        Util.isFlightRecorderAvailable() ? new OverlayRenderEvent("PathMapTooltipOverlay") : null;
+    private final WorldMapTransform transform = new WorldMapTransform();
+    private final PathMapGeometry pathGeometry = new PathMapGeometry();
 
     @Inject
     private PathMapTooltipOverlay(Client client, ShortestPathPlugin plugin, ShortestPathConfig config) {
@@ -43,16 +48,40 @@ public class PathMapTooltipOverlay extends Overlay {
 
     @Override
     public Dimension render(Graphics2D graphics) {
+        if (renderEvent == null) {
+            return renderOverlay(graphics);
+        }
+
+        renderEvent.begin();
+        try {
+            return renderOverlay(graphics);
+        } finally {
+            renderEvent.commit();
+        }
+    }
+
+    private Dimension renderOverlay(Graphics2D graphics) {
         if (!config.drawMap() || client.getWidget(WidgetInfo.WORLD_MAP_VIEW) == null) {
             return null;
         }
 
-        if (plugin.getPathfinder() != null) {
-            List<WorldPoint> path = plugin.getPathfinder().getPath();
+        if (plugin.getPathfinder() != null && transform.update(client)) {
+            PackedPath path = plugin.getPathfinder().getPath();
+            pathGeometry.update(path);
             Point cursorPos = client.getMouseCanvasPosition();
-            for (int i = 0; i < path.size(); i++) {
-                if (drawTooltip(graphics, cursorPos, path.get(i), i + 1)) {
-                    return null;
+            // Only tiles of runs on the visible part of the map can be under the cursor
+            for (int run = 0; run < pathGeometry.getRunCount(); run++) {
+                if (!pathGeometry.isVisible(run, transform)) {
+                    continue;
+                }
+                for (int i = pathGeometry.runStart(run); i < pathGeometry.runEnd(run); i++) {
+                    final int x = pathGeometry.getX(i);
+                    final int y = pathGeometry.getY(i);
+                    if (cursorPos.getX() >= x && cursorPos.getX() <= x + pathGeometry.getWidth(i) &&
+                        cursorPos.getY() >= y && cursorPos.getY() <= y + pathGeometry.getHeight(i)) {
+                        drawTooltip(graphics, path.getX(i), path.getY(i), i + 1, path.size());
+                        return null;
+                    }
                 }
             }
         }
@@ -60,22 +89,11 @@ public class PathMapTooltipOverlay extends Overlay {
         return null;
     }
 
-    private boolean drawTooltip(Graphics2D graphics, Point cursorPos, WorldPoint point, int n) {
-        Point start = plugin.mapWorldPointToGraphicsPoint(point);
-        Point end = plugin.mapWorldPointToGraphicsPoint(point.dx(1).dy(-1));
+    private void drawTooltip(Graphics2D graphics, int worldX, int worldY, int n, int steps) {
+        final int startX = transform.mapX(worldX);
+        final int startY = transform.mapY(worldY);
 
-        if (start == null || end == null) {
-            return false;
-        }
-
-        int width = end.getX() - start.getX();
-
-        if (cursorPos.getX() < (start.getX() - width / 2) || cursorPos.getX() > (end.getX() - width / 2) ||
-            cursorPos.getY() < (start.getY() - width / 2) || cursorPos.getY() > (end.getY() - width / 2)) {
-            return false;
-        }
-
-        List<String> rows = Arrays.asList("Shortest path:", "Step " + n + " of " + plugin.getPathfinder().getPath().size());
+        List<String> rows = Arrays.asList("Shortest path:", "Step " + n + " of " + steps);
 
         graphics.setFont(FontManager.getRunescapeFont());
         FontMetrics fm = graphics.getFontMetrics();
@@ -89,13 +107,13 @@ public class PathMapTooltipOverlay extends Overlay {
         int worldMapRightBoundary = worldMapBounds.width + worldMapBounds.x;
         int worldMapBottomBoundary = worldMapBounds.height + worldMapBounds.y;
 
-        int drawPointX = start.getX() + TOOLTIP_OFFSET_WIDTH;
-        int drawPointY = start.getY();
+        int drawPointX = startX + TOOLTIP_OFFSET_WIDTH;
+        int drawPointY = startY;
         if (drawPointX + clippedWidth > worldMapRightBoundary) {
             drawPointX = worldMapRightBoundary - clippedWidth;
         }
         if (drawPointY + clippedHeight > worldMapBottomBoundary) {
-            drawPointY = start.getY() - TOOLTIP_OFFSET_HEIGHT * 2 - tooltipHeight;
+            drawPointY = startY - TOOLTIP_OFFSET_HEIGHT * 2 - tooltipHeight;
         }
         drawPointY += TOOLTIP_OFFSET_HEIGHT;
 
@@ -115,7 +133,5 @@ public class PathMapTooltipOverlay extends Overlay {
         for (int i = 0; i < rows.size(); i++) {
             graphics.drawString(rows.get(i), drawPointX, drawPointY + TOOLTIP_TEXT_OFFSET_HEIGHT + (i + 1) * tooltipHeight);
         }
-
-        return true;
     }
 }
@@ -5,7 +5,6 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
@@ -15,6 +14,7 @@ import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
+import shortestpath.pathfinder.PackedPath;
 
 public class PathMinimapOverlay extends Overlay {
     private static final int TILE_WIDTH = 4;
@@ -23,6 +23,9 @@ public class PathMinimapOverlay extends Overlay {
     private final Client client;
     private final ShortestPathPlugin plugin;
     private final ShortestPathConfig config;
+    // Reused for every frame, so nothing is allocated while rendering; null if the runtime has no flight recorder
+    private final OverlayRenderEvent renderEvent =
+        Util.isFlightRecorderAvailable() ? new OverlayRenderEvent("PathMinimapOverlay") : null;
 
     @Inject
     private PathMinimapOverlay(Client client, ShortestPathPlugin plugin, ShortestPathConfig config) {
@@ -36,6 +39,19 @@ public class PathMinimapOverlay extends Overlay {
 
     @Override
     public Dimension render(Graphics2D graphics) {
+        if (renderEvent == null) {
+            return renderOverlay(graphics);
+        }
+
+        renderEvent.begin();
+        try {
+            return renderOverlay(graphics);
+        } finally {
+            renderEvent.commit();
+        }
+    }
+
+    private Dimension renderOverlay(Graphics2D graphics) {
         if (!config.drawMinimap() || plugin.getPathfinder() == null) {
             return null;
         }
@@ -44,36 +60,42 @@ public class PathMinimapOverlay extends Overlay {
         graphics.setClip(plugin.getMinimapClipArea());
 
         if (plugin.getPathfinder().isDone()) {
-            List<WorldPoint> pathPoints = plugin.getPathfinder().getPath();
+            PackedPath path = plugin.getPathfinder().getPath();
             Color pathColor = plugin.getPathfinder().isDone() ? config.colourPath() : config.colourPathCalculating();
-            for (WorldPoint pathPoint : pathPoints) {
-                if (pathPoint.getPlane() != client.getPlane()) {
-                    continue;
-                }
-
-                drawOnMinimap(graphics, pathPoint, pathColor);
+            for (int i = 0; i < path.size(); i++) {
+                drawOnMinimap(graphics, path.get(i), pathColor);
             }
         }
 
         return null;
     }
 
-    private void drawOnMinimap(Graphics2D graphics, WorldPoint location, Color color) {
-        for (WorldPoint point : WorldPoint.toLocalInstance(client, location)) {
-            LocalPoint lp = LocalPoint.fromWorld(client, point);
-
-            if (lp == null) {
-                continue;
+    private void drawOnMinimap(Graphics2D graphics, int packedPoint, Color color) {
+        if (client.isInInstancedRegion()) {
+            // A template tile can be copied to more than one place in the instance, and every copy is drawn
+            for (WorldPoint point : WorldPoint.toLocalInstance(client, WorldPointUtil.unpackWorldPoint(packedPoint))) {
+                if (point.getPlane() == client.getPlane()) {
+                    drawOnMinimap(graphics, LocalPoint.fromWorld(client, point), color);
+                }
             }
+            return;
+        }
 
-            Point posOnMinimap = Perspective.localToMinimap(client, lp);
+        drawOnMinimap(graphics, WorldPointUtil.toLocalPoint(client, packedPoint), color);
+    }
 
-            if (posOnMinimap == null) {
-                continue;
-            }
+    private void drawOnMinimap(Graphics2D graphics, LocalPoint lp, Color color) {
+        if (lp == null) {
+            return;
+        }
+
+        Point posOnMinimap = Perspective.localToMinimap(client, lp);
 
-            renderMinimapRect(client, graphics, posOnMinimap, TILE_WIDTH, TILE_HEIGHT, color);
+        if (posOnMinimap == null) {
+            return;
         }
+
+        renderMinimapRect(client, graphics, posOnMinimap, TILE_WIDTH, TILE_HEIGHT, color);
     }
 
     public static void renderMinimapRect(Client client, Graphics2D graphics, Point center, int width, int height, Color color) {
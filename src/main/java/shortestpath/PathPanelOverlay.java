@@ -1,21 +1,29 @@
 package shortestpath;
 
+import net.runelite.api.MenuAction;
+import net.runelite.client.ui.overlay.OverlayMenuEntry;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.TextComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
+import shortestpath.pathfinder.Node;
 import shortestpath.pathfinder.Pathfinder;
 
 import javax.inject.Inject;
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class PathPanelOverlay extends OverlayPanel {
+    static final String SELECT = "Select";
+    static final String ROUTE = "Route ";
+
     private final ShortestPathPlugin plugin;
+    private int menuRouteCount;
 
     @Inject
     public PathPanelOverlay(ShortestPathPlugin plugin) {
@@ -28,15 +36,34 @@ public class PathPanelOverlay extends OverlayPanel {
     public Dimension render(Graphics2D graphics) {
         Pathfinder pathfinder = plugin.getPathfinder();
         if (pathfinder == null || !pathfinder.isDone()) {
+            updateMenuEntries(0);
             return null;
         }
 
+        List<Node> routes = pathfinder.getRoutes();
         List<String> actions = pathfinder.getActions();
-        if (actions == null || actions.isEmpty()) {
+        updateMenuEntries(routes.size() > 1 ? routes.size() : 0);
+        if ((actions == null || actions.isEmpty()) && routes.size() <= 1) {
             return null;
         }
 
         List<LayoutableRenderableEntity> children = panelComponent.getChildren();
+        if (routes.size() > 1) {
+            children.add(TitleComponent.builder().text("Routes").build());
+            for (int i = 0; i < routes.size(); ++i) {
+                Node route = routes.get(i);
+                children.add(LineComponent.builder()
+                    .left(ROUTE + (i + 1) + ": " + pathfinder.getCostModel().toTicks(route.cost) + " ticks")
+                    .right(route.gp > 0 ? route.gp + " gp" : "")
+                    .leftColor(i == pathfinder.getSelectedRoute() ? Color.GREEN : Color.WHITE)
+                    .build());
+            }
+        }
+
+        if (actions == null || actions.isEmpty()) {
+            return super.render(graphics);
+        }
+
         children.add(TitleComponent.builder().text("Actions").build());
 
         for (int i = 0; i < actions.size(); ++i) {
@@ -45,4 +72,17 @@ public class PathPanelOverlay extends OverlayPanel {
 
         return super.render(graphics);
     }
+
+    // Right-clicking the panel offers one entry per route; see ShortestPathPlugin.onOverlayMenuClicked
+    private void updateMenuEntries(int routeCount) {
+        if (routeCount == menuRouteCount) {
+            return;
+        }
+
+        getMenuEntries().clear();
+        for (int i = 0; i < routeCount; ++i) {
+            getMenuEntries().add(new OverlayMenuEntry(MenuAction.RUNELITE_OVERLAY, SELECT, ROUTE + (i + 1)));
+        }
+        menuRouteCount = routeCount;
+    }
 }
@@ -4,27 +4,49 @@ import com.google.inject.Inject;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 import java.awt.geom.Line2D;
-import java.util.ArrayList;
 import java.util.List;
 import net.runelite.api.Client;
+import net.runelite.api.Constants;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
-import net.runelite.api.Tile;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
-import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.PackedPath;
+import shortestpath.pathfinder.TransportIndex;
+
+import static net.runelite.api.Constants.REGION_SIZE;
 
 public class PathTileOverlay extends Overlay {
+    // The directions a tile of the collision map is blocked in, by combination of SceneCollision directions
+    private static final String[] LABELS = new String[SceneCollision.BLOCKED + 1];
+
+    static {
+        for (int i = 0; i < LABELS.length; i++) {
+            LABELS[i] = ((i & SceneCollision.NORTH) != 0 ? "n" : "") +
+                ((i & SceneCollision.SOUTH) != 0 ? "s" : "") +
+                ((i & SceneCollision.EAST) != 0 ? "e" : "") +
+                ((i & SceneCollision.WEST) != 0 ? "w" : "");
+        }
+    }
+
     private final Client client;
     private final ShortestPathPlugin plugin;
     private final ShortestPathConfig config;
+    // Reused for every frame, so nothing is allocated while rendering; null if the runtime has no flight recorder
+    private final OverlayRenderEvent renderEvent =
+        Util.isFlightRecorderAvailable() ? new OverlayRenderEvent("PathTileOverlay") : null;
+    private final SceneCollision sceneCollision = new SceneCollision();
+    private final int[] labelWidths = new int[LABELS.length];
+    private Font labelFont;
 
     @Inject
     public PathTileOverlay(Client client, ShortestPathPlugin plugin, ShortestPathConfig config) {
@@ -37,77 +59,108 @@ public class PathTileOverlay extends Overlay {
     }
 
     private void renderTransports(Graphics2D graphics) {
-        for (WorldPoint a : plugin.getTransports().keySet()) {
-            drawTile(graphics, a, config.colourTransports(), -1, true);
-
-            Point ca = tileCenter(a);
-
-            if (ca == null) {
-                continue;
+        if (client.isInInstancedRegion()) {
+            // Instances are put together from chunks of anywhere in the world, so there are no regions to look up
+            for (WorldPoint a : plugin.getTransports().keySet()) {
+                if (a != null) {
+                    renderTransport(graphics, a);
+                }
             }
+            return;
+        }
 
-            StringBuilder s = new StringBuilder();
-            for (Transport b : plugin.getTransports().getOrDefault(a, new ArrayList<>())) {
-                for (WorldPoint origin : WorldPoint.toLocalInstance(client, b.getOrigin())) {
-                    Point cb = tileCenter(origin);
-                    if (cb != null) {
-                        graphics.drawLine(ca.getX(), ca.getY(), cb.getX(), cb.getY());
-                    }
-                    if (origin.getPlane() > a.getPlane()) {
-                        s.append("+");
-                    } else if (origin.getPlane() < a.getPlane()) {
-                        s.append("-");
-                    } else {
-                        s.append("=");
-                    }
+        final TransportIndex index = plugin.getTransportIndex();
+        final int minRegionX = client.getBaseX() / REGION_SIZE;
+        final int minRegionY = client.getBaseY() / REGION_SIZE;
+        final int maxRegionX = (client.getBaseX() + Constants.SCENE_SIZE - 1) / REGION_SIZE;
+        final int maxRegionY = (client.getBaseY() + Constants.SCENE_SIZE - 1) / REGION_SIZE;
+        for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+            for (int regionY = minRegionY; regionY <= maxRegionY; regionY++) {
+                for (WorldPoint a : index.getOrigins(regionX, regionY)) {
+                    renderTransport(graphics, a);
                 }
             }
-            graphics.setColor(Color.WHITE);
-            graphics.drawString(s.toString(), ca.getX(), ca.getY());
         }
     }
 
-    private void renderCollisionMap(Graphics2D graphics) {
-        CollisionMap map = plugin.getMap();
-        for (Tile[] row : client.getScene().getTiles()[client.getPlane()]) {
-            for (Tile tile : row) {
-                if (tile == null) {
-                    continue;
-                }
-
-                Polygon tilePolygon = Perspective.getCanvasTilePoly(client, tile.getLocalLocation());
+    private void renderTransport(Graphics2D graphics, WorldPoint a) {
+        List<Transport> transports = plugin.getTransports().get(a);
+        if (transports == null) {
+            return;
+        }
 
-                if (tilePolygon == null) {
-                    continue;
-                }
+        drawTile(graphics, a, config.colourTransports(), -1, true);
 
-                WorldPoint location = client.isInInstancedRegion() ?
-                    WorldPoint.fromLocalInstance(client, tile.getLocalLocation()) : tile.getWorldLocation();
-                int x = location.getX();
-                int y = location.getY();
-                int z = location.getPlane();
+        Point ca = tileCenter(a);
 
-                String s = (!map.n(x, y, z) ? "n" : "") +
-                        (!map.s(x, y, z) ? "s" : "") +
-                        (!map.e(x, y, z) ? "e" : "") +
-                        (!map.w(x, y, z) ? "w" : "");
+        if (ca == null) {
+            return;
+        }
 
-                if (map.isBlocked(x, y, z)) {
-                    graphics.setColor(config.colourCollisionMap());
-                    graphics.fill(tilePolygon);
+        StringBuilder s = new StringBuilder();
+        for (Transport b : transports) {
+            for (WorldPoint origin : WorldPoint.toLocalInstance(client, b.getOrigin())) {
+                Point cb = tileCenter(origin);
+                if (cb != null) {
+                    graphics.drawLine(ca.getX(), ca.getY(), cb.getX(), cb.getY());
                 }
-                if (!s.isEmpty() && !s.equals("nsew")) {
-                    graphics.setColor(Color.WHITE);
-                    int stringX = (int) (tilePolygon.getBounds().getCenterX() - graphics.getFontMetrics().getStringBounds(s, graphics).getWidth() / 2);
-                    int stringY = (int) tilePolygon.getBounds().getCenterY();
-                    graphics.drawString(s, stringX, stringY);
+                if (origin.getPlane() > a.getPlane()) {
+                    s.append("+");
+                } else if (origin.getPlane() < a.getPlane()) {
+                    s.append("-");
+                } else {
+                    s.append("=");
                 }
             }
         }
+        graphics.setColor(Color.WHITE);
+        graphics.drawString(s.toString(), ca.getX(), ca.getY());
+    }
+
+    private void renderCollisionMap(Graphics2D graphics) {
+        sceneCollision.update(client, plugin.getMap());
+        if (graphics.getFont() != labelFont) {
+            labelFont = graphics.getFont();
+            for (int i = 0; i < LABELS.length; i++) {
+                labelWidths[i] = (int) graphics.getFontMetrics().getStringBounds(LABELS[i], graphics).getWidth();
+            }
+        }
+
+        for (int i = 0; i < sceneCollision.size(); i++) {
+            Polygon tilePolygon = Perspective.getCanvasTilePoly(client,
+                LocalPoint.fromScene(sceneCollision.getSceneX(i), sceneCollision.getSceneY(i)));
+
+            if (tilePolygon == null) {
+                continue;
+            }
+
+            final int blocked = sceneCollision.getBlocked(i);
+            if (blocked == SceneCollision.BLOCKED) {
+                graphics.setColor(config.colourCollisionMap());
+                graphics.fill(tilePolygon);
+            } else {
+                Rectangle bounds = tilePolygon.getBounds();
+                graphics.setColor(Color.WHITE);
+                graphics.drawString(LABELS[blocked], (int) bounds.getCenterX() - labelWidths[blocked] / 2, (int) bounds.getCenterY());
+            }
+        }
     }
 
     @Override
     public Dimension render(Graphics2D graphics) {
+        if (renderEvent == null) {
+            return renderOverlay(graphics);
+        }
+
+        renderEvent.begin();
+        try {
+            return renderOverlay(graphics);
+        } finally {
+            renderEvent.commit();
+        }
+    }
+
+    private Dimension renderOverlay(Graphics2D graphics) {
         if (config.drawTransports()) {
             this.renderTransports(graphics);
         }
@@ -116,7 +169,7 @@ public class PathTileOverlay extends Overlay {
             this.renderCollisionMap(graphics);
         }
 
-        if (config.drawTiles() && plugin.getPathfinder() != null && plugin.getPathfinder().getPath() != null) {
+        if (config.drawTiles() && plugin.getPathfinder() != null) {
             Color color;
             if (plugin.getPathfinder().isDone()) {
                 color = new Color(
@@ -132,16 +185,15 @@ public class PathTileOverlay extends Overlay {
                     config.colourPathCalculating().getAlpha() / 2);
             }
 
-            List<WorldPoint> path = plugin.getPathfinder().getPath();
-            int counter = 0;
+            PackedPath path = plugin.getPathfinder().getPath();
             if (TileStyle.LINES.equals(config.pathStyle())) {
                 for (int i = 1; i < path.size(); i++) {
-                    drawLine(graphics, path.get(i - 1), path.get(i), color, 1 + counter++);
+                    drawLine(graphics, path, i - 1, i, color, i);
                 }
             } else {
                 boolean showTiles = TileStyle.TILES.equals(config.pathStyle());
-                for (WorldPoint point : path) {
-                    drawTile(graphics, point, color, counter++, showTiles);
+                for (int i = 0; i < path.size(); i++) {
+                    drawTile(graphics, path, i, color, i, showTiles);
                 }
             }
         }
@@ -194,17 +246,35 @@ public class PathTileOverlay extends Overlay {
         }
     }
 
-    private void drawLine(Graphics2D graphics, WorldPoint startLoc, WorldPoint endLoc, Color color, int counter) {
-        WorldPoint start = WorldPoint.toLocalInstance(client, startLoc).iterator().next();
-        WorldPoint end = WorldPoint.toLocalInstance(client, endLoc).iterator().next();
+    private void drawTile(Graphics2D graphics, PackedPath path, int index, Color color, int counter, boolean draw) {
+        if (client.isInInstancedRegion()) {
+            // A template tile can be copied to more than one place in the instance, and every copy is drawn
+            drawTile(graphics, path.getWorldPoint(index), color, counter, draw);
+            return;
+        }
 
-        final int z = client.getPlane();
-        if (start.getPlane() != z) {
+        LocalPoint lp = WorldPointUtil.toLocalPoint(client, path.get(index));
+        if (lp == null) {
+            return;
+        }
+
+        Polygon poly = Perspective.getCanvasTilePoly(client, lp);
+        if (poly == null) {
             return;
         }
 
-        LocalPoint lpStart = LocalPoint.fromWorld(client, start);
-        LocalPoint lpEnd = LocalPoint.fromWorld(client, end);
+        if (draw) {
+            graphics.setColor(color);
+            graphics.fill(poly);
+        }
+
+        drawCounter(graphics, poly.getBounds().getCenterX(), poly.getBounds().getCenterY(), counter);
+    }
+
+    private void drawLine(Graphics2D graphics, PackedPath path, int startIndex, int endIndex, Color color, int counter) {
+        final int z = client.getPlane();
+        LocalPoint lpStart = WorldPointUtil.toLocalPoint(client, path.get(startIndex));
+        LocalPoint lpEnd = WorldPointUtil.toLocalPoint(client, path.get(endIndex));
 
         if (lpStart == null || lpEnd == null) {
             return;
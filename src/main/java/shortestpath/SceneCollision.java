@@ -0,0 +1,96 @@
+package shortestpath;
+
+import java.util.Arrays;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.Tile;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.CollisionMap;
+
+/**
+ * The collision flags of the tiles in the loaded scene, worked out once per scene and plane so the scene
+ * overlay only has to draw them. Only tiles with something to draw are kept.
+ */
+class SceneCollision {
+    static final int NORTH = 1;
+    static final int SOUTH = 2;
+    static final int EAST = 4;
+    static final int WEST = 8;
+    static final int BLOCKED = NORTH | SOUTH | EAST | WEST;
+
+    private CollisionMap map;
+    private int revision;
+    private int baseX = -1;
+    private int baseY = -1;
+    private int plane = -1;
+    private int instanceHash;
+
+    // Scene x and y of each tile that is blocked in at least one direction, and the directions it is blocked in
+    private int[] sceneX = new int[0];
+    private int[] sceneY = new int[0];
+    private int[] blocked = new int[0];
+    private int size;
+
+    /**
+     * Works out the tiles again if the scene, the plane or the collision map has changed, or the map has been patched.
+     */
+    void update(Client client, CollisionMap map) {
+        final boolean instanced = client.isInInstancedRegion();
+        final int hash = instanced ? Arrays.deepHashCode(client.getInstanceTemplateChunks()[client.getPlane()]) : 0;
+        if (map == this.map && map.getRevision() == revision && client.getBaseX() == baseX && client.getBaseY() == baseY &&
+            client.getPlane() == plane && hash == instanceHash) {
+            return;
+        }
+
+        this.map = map;
+        revision = map.getRevision();
+        baseX = client.getBaseX();
+        baseY = client.getBaseY();
+        plane = client.getPlane();
+        instanceHash = hash;
+
+        final int tiles = Constants.SCENE_SIZE * Constants.SCENE_SIZE;
+        sceneX = new int[tiles];
+        sceneY = new int[tiles];
+        blocked = new int[tiles];
+        size = 0;
+        for (Tile[] row : client.getScene().getTiles()[plane]) {
+            for (Tile tile : row) {
+                if (tile == null) {
+                    continue;
+                }
+
+                WorldPoint location = instanced ?
+                    WorldPoint.fromLocalInstance(client, tile.getLocalLocation()) : tile.getWorldLocation();
+                final int x = location.getX();
+                final int y = location.getY();
+                final int z = location.getPlane();
+                final int directions = (map.n(x, y, z) ? 0 : NORTH) | (map.s(x, y, z) ? 0 : SOUTH) |
+                    (map.e(x, y, z) ? 0 : EAST) | (map.w(x, y, z) ? 0 : WEST);
+                if (directions != 0) {
+                    sceneX[size] = tile.getSceneLocation().getX();
+                    sceneY[size] = tile.getSceneLocation().getY();
+                    blocked[size] = directions;
+                    size++;
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getSceneX(int index) {
+        return sceneX[index];
+    }
+
+    int getSceneY(int index) {
+        return sceneY[index];
+    }
+
+    /** The directions the tile is blocked in, as a combination of {@link #NORTH}, {@link #SOUTH}, {@link #EAST} and {@link #WEST} */
+    int getBlocked(int index) {
+        return blocked[index];
+    }
+}
@@ -0,0 +1,51 @@
+package shortestpath;
+
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+import shortestpath.pathfinder.SearchMetrics;
+
+import javax.inject.Inject;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+
+public class SearchMetricsOverlay extends OverlayPanel {
+    private final ShortestPathPlugin plugin;
+    private final ShortestPathConfig config;
+
+    @Inject
+    public SearchMetricsOverlay(ShortestPathPlugin plugin, ShortestPathConfig config) {
+        super(plugin);
+        setPosition(OverlayPosition.TOP_LEFT);
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics) {
+        SearchMetrics metrics = plugin.getLastSearchMetrics();
+        if (!config.drawSearchMetrics() || metrics == null) {
+            return null;
+        }
+
+        panelComponent.getChildren().add(TitleComponent.builder().text("Last search").build());
+        addLine("Expanded", Integer.toString(metrics.getExpansions()));
+        addLine("Transports queued", Integer.toString(metrics.getTransportsEnqueued()));
+        addLine("Peak boundary", Integer.toString(metrics.getPeakBoundary()));
+        addLine("Peak pending", Integer.toString(metrics.getPeakPending()));
+        addLine("Regions", Integer.toString(metrics.getRegionsVisited()));
+        addLine("First path", metrics.getFirstPathNanos() < 0 ? "-" : formatMillis(metrics.getFirstPathNanos()));
+        addLine("Total", formatMillis(metrics.getTotalNanos()));
+        addLine("Cutoff", metrics.isCutoff() ? "yes" : "no");
+        return super.render(graphics);
+    }
+
+    private void addLine(String left, String right) {
+        panelComponent.getChildren().add(LineComponent.builder().left(left).right(right).build());
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+}
@@ -30,11 +30,35 @@ public interface ShortestPathConfig extends Config {
         return true;
     }
 
+    @ConfigItem(
+        keyName = "avoidAreas",
+        name = "Avoid areas",
+        description = "Areas that should be avoided if possible, like the wilderness, one per line<br>" +
+            "as the corners x1 y1 x2 y2 followed by the plane if it is not 0",
+        position = 2,
+        section = sectionSettings
+    )
+    default String avoidAreas() {
+        return "";
+    }
+
+    @ConfigItem(
+        keyName = "costAreas",
+        name = "Cost areas",
+        description = "Areas that walking through costs more, like crowded or dangerous places, one per line<br>" +
+            "as the corners x1 y1 x2 y2, how many times a step costs more, and the plane if it is not 0",
+        position = 3,
+        section = sectionSettings
+    )
+    default String costAreas() {
+        return "";
+    }
+
     @ConfigItem(
         keyName = "useAgilityShortcuts",
         name = "Use agility shortcuts",
         description = "Whether to include agility shortcuts in the path. You must also have the required agility level",
-        position = 2,
+        position = 4,
         section = sectionSettings
     )
     default boolean useAgilityShortcuts() {
@@ -46,7 +70,7 @@ public interface ShortestPathConfig extends Config {
         name = "Use grapple shortcuts",
         description = "Whether to include crossbow grapple agility shortcuts in the path.<br>" +
             "You must also have the required agility, ranged and strength levels",
-        position = 3,
+        position = 5,
         section = sectionSettings
     )
     default boolean useGrappleShortcuts() {
@@ -57,7 +81,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useBoats",
         name = "Use boats",
         description = "Whether to include boats, canoes and charter ships in the path",
-        position = 4,
+        position = 6,
         section = sectionSettings
     )
     default boolean useBoats() {
@@ -69,7 +93,7 @@ public interface ShortestPathConfig extends Config {
         name = "Use fairy rings",
         description = "Whether to include fairy rings in the path.<br>" +
             "You must also have completed the required quest or miniquest",
-        position = 5,
+        position = 7,
         section = sectionSettings
     )
     default boolean useFairyRings() {
@@ -80,7 +104,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useTeleports",
         name = "Use teleports",
         description = "Whether to include teleportation portals and levers in the path",
-        position = 6,
+        position = 8,
         section = sectionSettings
     )
     default boolean useTeleports() {
@@ -91,7 +115,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useSpiritTree",
         name = "Use spirit tree",
         description = "Whether to include spirit tree teleports in the path",
-        position = 7,
+        position = 9,
         section = sectionSettings
     )
     default boolean useSpiritTree() {
@@ -102,7 +126,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useGnomeGlider",
         name = "Use gnome glider",
         description = "Whether to include gnome glider transports in the path",
-        position = 8,
+        position = 10,
         section = sectionSettings
     )
     default boolean useGnomeGlider() {
@@ -113,7 +137,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useItems",
         name = "Use teleportation items",
         description = "Whether to include teleportation items",
-        position = 9,
+        position = 11,
         section = sectionSettings
     )
     default boolean useItems() {
@@ -124,7 +148,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useSpells",
         name = "Use teleportation spells",
         description = "Whether to include teleportation spells",
-        position = 10,
+        position = 12,
         section = sectionSettings
     )
     default boolean useSpells() {
@@ -135,7 +159,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "itemsLocation",
         name = "Search items in...",
         description = "Where to look for items to use for magic or item teleports",
-        position = 11,
+        position = 13,
         section = sectionSettings
     )
     default ItemSearchLocation itemsLocation() {
@@ -147,7 +171,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "useGP",
         name = "Take toll routes",
         description = "Whether to take routes that use gp to travel",
-        position = 12,
+        position = 14,
         section = sectionSettings
     )
     default boolean useGP() {
@@ -159,7 +183,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "gpCost",
         name = "Max gp cost",
         description = "How much GP to spend on routes",
-        position = 13,
+        position = 15,
         section = sectionSettings
     )
     default int gpCost() {
@@ -170,7 +194,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "cancelInstead",
         name = "Cancel instead of recalculating",
         description = "Whether the path should be cancelled rather than recalculated when the recalculate distance limit is exceeded",
-        position = 14,
+        position = 16,
         section = sectionSettings
     )
     default boolean cancelInstead() {
@@ -185,13 +209,32 @@ public interface ShortestPathConfig extends Config {
         keyName = "recalculateDistance",
         name = "Recalculate distance",
         description = "Distance from the path the player should be for it to be recalculated (-1 for never)",
-        position = 15,
+        position = 17,
         section = sectionSettings
     )
     default int recalculateDistance() {
         return 10;
     }
 
+    @Units(
+        value = Units.TICKS
+    )
+    @Range(
+        min = -1,
+        max = 100
+    )
+    @ConfigItem(
+        keyName = "recalculateSlack",
+        name = "Recalculate slack",
+        description = "When recalculating, the path back to the old path is reused if it takes at most this many<br>" +
+            "ticks longer than walking straight to it; otherwise the whole path is searched again (-1 for always)",
+        position = 18,
+        section = sectionSettings
+    )
+    default int recalculateSlack() {
+        return 10;
+    }
+
     @Range(
         min = -1,
         max = 50
@@ -200,7 +243,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "finishDistance",
         name = "Finish distance",
         description = "Distance from the target tile at which the path should be ended (-1 for never)",
-        position = 16,
+        position = 19,
         section = sectionSettings
     )
     default int reachedDistance() {
@@ -211,7 +254,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "showTileCounter",
         name = "Show tile counter",
         description = "Whether to display the number of tiles travelled, number of tiles remaining or disable counting",
-        position = 17,
+        position = 20,
         section = sectionSettings
     )
     default TileCounter showTileCounter() {
@@ -222,7 +265,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "tileCounterStep",
         name = "Tile counter step",
         description = "The number of tiles between the displayed tile counter numbers",
-        position = 18,
+        position = 21,
         section = sectionSettings
     )
     default int tileCounterStep()
@@ -242,7 +285,7 @@ public interface ShortestPathConfig extends Config {
         name = "Calculation cutoff",
         description = "The cutoff threshold in number of ticks (0.6 seconds) of no progress being<br>" +
             "made towards the path target before the calculation will be stopped",
-        position = 19,
+        position = 22,
         section = sectionSettings
     )
     default int calculationCutoff()
@@ -250,10 +293,103 @@ public interface ShortestPathConfig extends Config {
         return 5;
     }
 
+    @ConfigItem(
+        keyName = "anytimeSearch",
+        name = "Quick first path",
+        description = "Whether to quickly find a complete but possibly longer path first and show it<br>" +
+            "while the shortest path is being calculated",
+        position = 23,
+        section = sectionSettings
+    )
+    default boolean anytimeSearch()
+    {
+        return true;
+    }
+
+    @Units(
+        value = Units.TICKS
+    )
+    @Range(
+        min = 1,
+        max = 1000
+    )
+    @ConfigItem(
+        keyName = "reachableTicks",
+        name = "Reachable area",
+        description = "How many ticks of walking and transports the reachable area<br>" +
+            "shown on the world map extends from the player",
+        position = 24,
+        section = sectionSettings
+    )
+    default int reachableTicks()
+    {
+        return 200;
+    }
+
+    @Range(
+        min = 0,
+        max = 5
+    )
+    @ConfigItem(
+        keyName = "alternativeRoutes",
+        name = "Alternative routes",
+        description = "The number of meaningfully different alternatives to search for besides the best path.<br>" +
+            "They are listed next to the path actions and can be selected by right-clicking the list",
+        position = 25,
+        section = sectionSettings
+    )
+    default int alternativeRoutes()
+    {
+        return 0;
+    }
+
+    @ConfigItem(
+        keyName = "costModel",
+        name = "Cost model",
+        description = "What the path is optimised for. Steps counts tiles and transport waits,<br>" +
+            "walking and running count ticks including transport animations",
+        position = 26,
+        section = sectionSettings
+    )
+    default CostModelType costModel()
+    {
+        return CostModelType.STEPS;
+    }
+
+    @Range(
+        min = 0,
+        max = 1000000
+    )
+    @ConfigItem(
+        keyName = "gpPerTick",
+        name = "GP per tick",
+        description = "How many coins one tick of travel time is worth when comparing a paid<br>" +
+            "transport with a free route. 0 only limits transports by the gp setting",
+        position = 27,
+        section = sectionSettings
+    )
+    default int gpPerTick()
+    {
+        return 0;
+    }
+
+    @ConfigItem(
+        keyName = "recordSearchTraces",
+        name = "Record search traces",
+        description = "Whether to write the order every search explored tiles in to a trace file<br>" +
+            "in .runelite/shortestpath/traces, for finding out why a search was slow",
+        position = 28,
+        section = sectionSettings
+    )
+    default boolean recordSearchTraces()
+    {
+        return false;
+    }
+
     @ConfigSection(
         name = "Display",
         description = "Options for displaying the path on the world map, minimap and scene tiles",
-        position = 20
+        position = 29
     )
     String sectionDisplay = "sectionDisplay";
 
@@ -261,7 +397,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawMap",
         name = "Draw path on world map",
         description = "Whether the path should be drawn on the world map",
-        position = 21,
+        position = 30,
         section = sectionDisplay
     )
     default boolean drawMap() {
@@ -272,7 +408,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawMinimap",
         name = "Draw path on minimap",
         description = "Whether the path should be drawn on the minimap",
-        position = 21,
+        position = 30,
         section = sectionDisplay
     )
     default boolean drawMinimap() {
@@ -283,7 +419,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawTiles",
         name = "Draw path on tiles",
         description = "Whether the path should be drawn on the game tiles",
-        position = 23,
+        position = 32,
         section = sectionDisplay
     )
     default boolean drawTiles() {
@@ -294,7 +430,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawTransports",
         name = "Draw transports",
         description = "Whether transports should be drawn",
-        position = 24,
+        position = 33,
         section = sectionDisplay
     )
     default boolean drawTransports() {
@@ -305,7 +441,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawCollisionMap",
         name = "Draw collision map",
         description = "Whether the collision map should be drawn",
-        position = 25,
+        position = 34,
         section = sectionDisplay
     )
     default boolean drawCollisionMap() {
@@ -316,17 +452,40 @@ public interface ShortestPathConfig extends Config {
         keyName = "pathStyle",
         name = "Path style",
         description = "Whether to display the path as tiles or a segmented line",
-        position = 26,
+        position = 35,
         section = sectionDisplay
     )
     default TileStyle pathStyle() {
         return TileStyle.TILES;
     }
 
+    @ConfigItem(
+        keyName = "drawSearchMetrics",
+        name = "Search metrics",
+        description = "Whether to show how much work the last search did, for finding routes that are slow to search",
+        position = 36,
+        section = sectionDisplay
+    )
+    default boolean drawSearchMetrics() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "showMenuShortcuts",
+        name = "Find nearest and reachable area menu",
+        description = "Whether the shift-click and world map menus offer \"Find nearest\" for each target set<br>" +
+            "and \"Show Reachable area\"",
+        position = 37,
+        section = sectionDisplay
+    )
+    default boolean showMenuShortcuts() {
+        return false;
+    }
+
     @ConfigSection(
         name = "Colours",
         description = "Colours for the path map, minimap and scene tiles",
-        position = 27
+        position = 38
     )
     String sectionColours = "sectionColours";
 
@@ -335,7 +494,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourPath",
         name = "Path",
         description = "Colour of the path tiles on the world map, minimap and in the game scene",
-        position = 28,
+        position = 39,
         section = sectionColours
     )
     default Color colourPath() {
@@ -347,7 +506,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourPathCalculating",
         name = "Calculating",
         description = "Colour of the path tiles while the pathfinding calculation is in progress",
-        position = 29,
+        position = 40,
         section = sectionColours
     )
     default Color colourPathCalculating() {
@@ -359,7 +518,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourTransports",
         name = "Transports",
         description = "Colour of the transport tiles",
-        position = 30,
+        position = 41,
         section = sectionColours
     )
     default Color colourTransports() {
@@ -371,7 +530,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourCollisionMap",
         name = "Collision map",
         description = "Colour of the collision map tiles",
-        position = 31,
+        position = 42,
         section = sectionColours
     )
     default Color colourCollisionMap() {
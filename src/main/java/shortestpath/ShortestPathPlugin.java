@@ -10,11 +10,14 @@ import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
 import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import lombok.Getter;
@@ -27,21 +30,30 @@ import net.runelite.api.Point;
 import net.runelite.api.SpriteID;
 import net.runelite.api.Varbits;
 import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameObjectDespawned;
+import net.runelite.api.events.GameObjectSpawned;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.GroundObjectDespawned;
+import net.runelite.api.events.GroundObjectSpawned;
 import net.runelite.api.events.MenuEntryAdded;
 import net.runelite.api.events.MenuOpened;
+import net.runelite.api.events.WallObjectDespawned;
+import net.runelite.api.events.WallObjectSpawned;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.api.worldmap.WorldMap;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.events.OverlayMenuClicked;
 import net.runelite.client.game.SpriteManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.JagexColors;
 import net.runelite.client.ui.overlay.OverlayManager;
+import net.runelite.client.ui.overlay.OverlayMenuEntry;
 import net.runelite.client.ui.overlay.worldmap.WorldMapOverlay;
 import net.runelite.client.ui.overlay.worldmap.WorldMapPoint;
 import net.runelite.client.ui.overlay.worldmap.WorldMapPointManager;
@@ -49,9 +61,13 @@ import net.runelite.client.util.ColorUtil;
 import net.runelite.client.util.ImageUtil;
 import net.runelite.client.util.Text;
 import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.CollisionPatch;
 import shortestpath.pathfinder.Pathfinder;
 import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.RouteStore;
+import shortestpath.pathfinder.SearchMetrics;
 import shortestpath.pathfinder.SplitFlagMap;
+import shortestpath.pathfinder.TransportIndex;
 
 @PluginDescriptor(
     name = "Shortest Path",
@@ -63,8 +79,11 @@ public class ShortestPathPlugin extends Plugin {
     private static final String ADD_START = "Add start";
     private static final String ADD_END = "Add end";
     private static final String CLEAR = "Clear";
+    private static final String FIND_NEAREST = "Find nearest";
     private static final String PATH = ColorUtil.wrapWithColorTag("Path", JagexColors.MENU_TARGET);
+    private static final String REACHABLE = ColorUtil.wrapWithColorTag("Reachable area", JagexColors.MENU_TARGET);
     private static final String SET = "Set";
+    private static final String SHOW = "Show";
     private static final String START = ColorUtil.wrapWithColorTag("Start", JagexColors.MENU_TARGET);
     private static final String TARGET = ColorUtil.wrapWithColorTag("Target", JagexColors.MENU_TARGET);
     private static final String TRANSPORT = ColorUtil.wrapWithColorTag("Transport", JagexColors.MENU_TARGET);
@@ -99,6 +118,9 @@ public class ShortestPathPlugin extends Plugin {
     @Inject
     private PathPanelOverlay pathPanelOverlay;
 
+    @Inject
+    private SearchMetricsOverlay searchMetricsOverlay;
+
     @Inject
     private SpriteManager spriteManager;
 
@@ -123,10 +145,20 @@ public class ShortestPathPlugin extends Plugin {
     @Getter
     private Pathfinder pathfinder;
     private PathfinderConfig pathfinderConfig;
+    // Set before the store has finished opening, and cleared on shut down so a store that opens later is closed again
+    private volatile RouteStore routeStore;
+    private LiveCollision liveCollision;
+    @Getter
+    private Pathfinder reachableArea;
+    // The work done by the last search that finished
+    @Getter
+    private volatile SearchMetrics lastSearchMetrics;
 
     @Getter
     private boolean startPointSet = false;
 
+    private Map<String, TargetSet> targetSets;
+
     @Provides
     public ShortestPathConfig provideConfig(ConfigManager configManager) {
         return configManager.getConfig(ShortestPathConfig.class);
@@ -137,25 +169,57 @@ public class ShortestPathPlugin extends Plugin {
         SplitFlagMap map = SplitFlagMap.fromResources();
         Map<WorldPoint, List<Transport>> transports = Transport.loadAllFromResources();
 
-        pathfinderConfig = new PathfinderConfig(map, Transport.loadAllFromResources(), client, config, this);
+        pathfinderConfig = new PathfinderConfig(map, transports, client, config, this);
+        liveCollision = new LiveCollision(map);
+        targetSets = TargetSet.loadAllFromResources();
+
+        // Searches go without the store until it is open, as opening it reads and hashes the resources
+        final RouteStore store = new RouteStore(new File(new File(RuneLite.RUNELITE_DIR, CONFIG_GROUP), "routes.bin"));
+        final PathfinderConfig storeConfig = pathfinderConfig;
+        routeStore = store;
+        Thread opener = new Thread(() -> {
+            store.open();
+            if (routeStore == store) {
+                storeConfig.setRouteStore(store);
+            } else {
+                store.close(); // The plugin shut down while the store was opening
+            }
+        }, "shortest-path-route-store");
+        opener.setDaemon(true);
+        opener.start();
+        pathfinderConfig.setSearchListener((searched, metrics) -> lastSearchMetrics = metrics);
+        pathfinderConfig.setTraceDirectory(new File(new File(RuneLite.RUNELITE_DIR, CONFIG_GROUP), "traces"));
 
         overlayManager.add(pathOverlay);
         overlayManager.add(pathMinimapOverlay);
         overlayManager.add(pathMapOverlay);
         overlayManager.add(pathMapTooltipOverlay);
         overlayManager.add(pathPanelOverlay);
+        overlayManager.add(searchMetricsOverlay);
     }
 
     @Override
     protected void shutDown() {
+        setReachableArea(null);
+
+        pathfinderConfig.setRouteStore(null);
+        routeStore.close();
+        routeStore = null;
+
         overlayManager.remove(pathOverlay);
         overlayManager.remove(pathMinimapOverlay);
         overlayManager.remove(pathMapOverlay);
         overlayManager.remove(pathMapTooltipOverlay);
         overlayManager.remove(pathPanelOverlay);
+        overlayManager.remove(searchMetricsOverlay);
+        pathMapOverlay.shutDown();
     }
 
     public void restartPathfinding(WorldPoint start, WorldPoint end) {
+        restartPathfinding(start, Collections.singleton(end));
+    }
+
+    public void restartPathfinding(WorldPoint start, Set<WorldPoint> ends) {
         synchronized (pathfinderMutex) {
             if (pathfinder != null) {
                 pathfinder.cancel();
@@ -165,12 +229,25 @@ public class ShortestPathPlugin extends Plugin {
         getClientThread().invokeLater(() -> {
             pathfinderConfig.refresh();
             synchronized (pathfinderMutex) {
-                pathfinder = new Pathfinder(pathfinderConfig, start, end);
+                pathfinder = new Pathfinder(pathfinderConfig, start, ends);
             }
         });
     }
     
-    Pattern EVENT_KEYS = Pattern.compile("^(avoidWilderness|useAgilityShortcuts|useGrappleShortcuts|useBoats|useFairyRings|useTeleports|useSpiritTree|useGnomeGlider|useItems|useSpells|itemsLocation|useGP|gpCost)$");
+    // Reuses as much of the finished path as possible; see Pathfinder(PathfinderConfig, WorldPoint, Pathfinder, int)
+    private void recalculatePathfinding(WorldPoint start) {
+        final Pathfinder previous = pathfinder;
+        getClientThread().invokeLater(() -> {
+            pathfinderConfig.refresh();
+            synchronized (pathfinderMutex) {
+                if (pathfinder == previous) {
+                    pathfinder = new Pathfinder(pathfinderConfig, start, previous, config.recalculateSlack());
+                }
+            }
+        });
+    }
+
+    Pattern EVENT_KEYS = Pattern.compile("^(avoidWilderness|avoidAreas|costAreas|useAgilityShortcuts|useGrappleShortcuts|useBoats|useFairyRings|useTeleports|useSpiritTree|useGnomeGlider|useItems|useSpells|itemsLocation|useGP|gpCost|costModel|gpPerTick|alternativeRoutes)$");
     @Subscribe
     public void onConfigChanged(ConfigChanged event) {
         if (!CONFIG_GROUP.equals(event.getGroup())) {
@@ -179,23 +256,28 @@ public class ShortestPathPlugin extends Plugin {
 
         boolean reloadTransports = EVENT_KEYS.matcher(event.getKey()).find();
         if (reloadTransports && pathfinder != null) {
-            restartPathfinding(pathfinder.getStart(), pathfinder.getTarget());
+            restartPathfinding(pathfinder.getStart(), pathfinder.getTargets());
         }
     }
 
     public boolean isNearPath(WorldPoint location) {
-        if (pathfinder == null || pathfinder.getPath() == null || pathfinder.getPath().isEmpty() ||
+        if (pathfinder == null || pathfinder.getPath().isEmpty() ||
             config.recalculateDistance() < 0 || lastLocation.equals(lastLocation = location)) {
             return true;
         }
 
-        for (WorldPoint point : pathfinder.getPath()) {
-            if (location.distanceTo2D(point) < config.recalculateDistance()) {
-                return true;
-            }
+        return pathfinder.getPath().isNear(WorldPointUtil.packWorldPoint(location), config.recalculateDistance());
+    }
+
+    @Subscribe
+    public void onOverlayMenuClicked(OverlayMenuClicked event) {
+        OverlayMenuEntry entry = event.getEntry();
+        if (event.getOverlay() != pathPanelOverlay || pathfinder == null ||
+            !PathPanelOverlay.SELECT.equals(entry.getOption()) || !entry.getTarget().startsWith(PathPanelOverlay.ROUTE)) {
+            return;
         }
 
-        return false;
+        pathfinder.selectRoute(Integer.parseInt(entry.getTarget().substring(PathPanelOverlay.ROUTE.length())) - 1);
     }
 
     @Subscribe
@@ -203,8 +285,44 @@ public class ShortestPathPlugin extends Plugin {
         lastMenuOpenedPoint = client.getMouseCanvasPosition();
     }
 
+    // Objects that spawn or despawn are what change the collision flags of a loaded scene
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        liveCollision.sceneChanged();
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        liveCollision.sceneChanged();
+    }
+
+    @Subscribe
+    public void onWallObjectSpawned(WallObjectSpawned event) {
+        liveCollision.sceneChanged();
+    }
+
+    @Subscribe
+    public void onWallObjectDespawned(WallObjectDespawned event) {
+        liveCollision.sceneChanged();
+    }
+
+    @Subscribe
+    public void onGroundObjectSpawned(GroundObjectSpawned event) {
+        liveCollision.sceneChanged();
+    }
+
+    @Subscribe
+    public void onGroundObjectDespawned(GroundObjectDespawned event) {
+        liveCollision.sceneChanged();
+    }
+
     @Subscribe
     public void onGameTick(GameTick tick) {
+        CollisionPatch patch = liveCollision.update(client);
+        if (patch != null) {
+            pathfinderConfig.applyCollisionPatch(patch);
+        }
+
         Player localPlayer = client.getLocalPlayer();
         if (localPlayer == null || pathfinder == null) {
             return;
@@ -222,7 +340,13 @@ public class ShortestPathPlugin extends Plugin {
                 setTarget(null);
                 return;
             }
-            restartPathfinding(currentLocation, pathfinder.getTarget());
+            if (pathfinder.isDone() && config.recalculateSlack() >= 0) {
+                recalculatePathfinding(currentLocation);
+                return;
+            }
+            // Once the nearest of several targets has been found, keep heading for that one
+            restartPathfinding(currentLocation, pathfinder.isDone() ?
+                Collections.singleton(pathfinder.getTarget()) : pathfinder.getTargets());
         }
     }
 
@@ -236,18 +360,14 @@ public class ShortestPathPlugin extends Plugin {
             }
 
             addMenuEntry(event, SET, TARGET, 1);
+            addShortcutMenuEntries(event, 1);
             if (pathfinder != null) {
                 if (pathfinder.getTarget() != null) {
                     addMenuEntry(event, SET, START, 1);
                 }
                 WorldPoint selectedTile = getSelectedWorldPoint();
-                if (pathfinder.getPath() != null) {
-                    for (WorldPoint tile : pathfinder.getPath()) {
-                        if (tile.equals(selectedTile)) {
-                            addMenuEntry(event, CLEAR, PATH, 1);
-                            break;
-                        }
-                    }
+                if (selectedTile != null && pathfinder.getPath().contains(WorldPointUtil.packWorldPoint(selectedTile))) {
+                    addMenuEntry(event, CLEAR, PATH, 1);
                 }
             }
         }
@@ -256,6 +376,7 @@ public class ShortestPathPlugin extends Plugin {
 
         if (map != null && map.getBounds().contains(client.getMouseCanvasPosition().getX(), client.getMouseCanvasPosition().getY())) {
             addMenuEntry(event, SET, TARGET, 0);
+            addShortcutMenuEntries(event, 0);
             if (pathfinder != null) {
                 if (pathfinder.getTarget() != null) {
                     addMenuEntry(event, SET, START, 0);
@@ -282,6 +403,10 @@ public class ShortestPathPlugin extends Plugin {
         return pathfinderConfig.getTransports();
     }
 
+    public TransportIndex getTransportIndex() {
+        return pathfinderConfig.getTransportIndex();
+    }
+
     public CollisionMap getMap() {
         return pathfinderConfig.getMap();
     }
@@ -306,7 +431,7 @@ public class ShortestPathPlugin extends Plugin {
                     lastClick.getOption() + " " + Text.removeTags(lastClick.getTarget()) + " " + lastClick.getIdentifier()
             );
             Transport transport = new Transport(transportStart, transportEnd);
-            pathfinderConfig.getTransports().computeIfAbsent(transportStart, k -> new ArrayList<>()).add(transport);
+            pathfinderConfig.addTransport(transport);
         }
 
         if (entry.getOption().equals("Copy Position")) {
@@ -320,6 +445,13 @@ public class ShortestPathPlugin extends Plugin {
             setTarget(getSelectedWorldPoint());
         }
 
+        if (entry.getOption().equals(FIND_NEAREST)) {
+            TargetSet targetSet = targetSets.get(Text.removeTags(entry.getTarget()));
+            if (targetSet != null) {
+                setTargets(targetSet.getTargets());
+            }
+        }
+
         if (entry.getOption().equals(SET) && entry.getTarget().equals(START)) {
             setStart(getSelectedWorldPoint());
         }
@@ -328,6 +460,14 @@ public class ShortestPathPlugin extends Plugin {
             setTarget(null);
         }
 
+        if (entry.getOption().equals(SHOW) && entry.getTarget().equals(REACHABLE)) {
+            setReachableArea(currentLocation);
+        }
+
+        if (entry.getOption().equals(CLEAR) && entry.getTarget().equals(REACHABLE)) {
+            setReachableArea(null);
+        }
+
         if (entry.getType() != MenuAction.WALK) {
             lastClick = entry;
         }
@@ -347,12 +487,16 @@ public class ShortestPathPlugin extends Plugin {
     }
 
     private void setTarget(WorldPoint target) {
+        setTargets(target == null ? null : Collections.singleton(target));
+    }
+
+    private void setTargets(Set<WorldPoint> targets) {
         Player localPlayer = client.getLocalPlayer();
         if (!startPointSet && localPlayer == null) {
             return;
         }
 
-        if (target == null) {
+        if (targets == null) {
             synchronized (pathfinderMutex) {
                 if (pathfinder != null) {
                     pathfinder.cancel();
@@ -365,11 +509,14 @@ public class ShortestPathPlugin extends Plugin {
             startPointSet = false;
         } else {
             worldMapPointManager.removeIf(x -> x == marker);
-            marker = new WorldMapPoint(target, MARKER_IMAGE);
-            marker.setName("Target");
-            marker.setTarget(marker.getWorldPoint());
-            marker.setJumpOnClick(true);
-            worldMapPointManager.add(marker);
+            marker = null;
+            if (targets.size() == 1) {
+                marker = new WorldMapPoint(targets.iterator().next(), MARKER_IMAGE);
+                marker.setName("Target");
+                marker.setTarget(marker.getWorldPoint());
+                marker.setJumpOnClick(true);
+                worldMapPointManager.add(marker);
+            }
 
             WorldPoint start = client.isInInstancedRegion() ?
                 WorldPoint.fromLocalInstance(client, localPlayer.getLocalLocation()) : localPlayer.getWorldLocation();
@@ -377,16 +524,36 @@ public class ShortestPathPlugin extends Plugin {
             if (startPointSet && pathfinder != null) {
                 start = pathfinder.getStart();
             }
-            restartPathfinding(start, target);
+            restartPathfinding(start, targets);
         }
     }
 
+    private void setReachableArea(WorldPoint start) {
+        synchronized (pathfinderMutex) {
+            if (reachableArea != null) {
+                reachableArea.cancel();
+            }
+            reachableArea = null;
+        }
+
+        if (start == null) {
+            return;
+        }
+
+        getClientThread().invokeLater(() -> {
+            pathfinderConfig.refresh();
+            synchronized (pathfinderMutex) {
+                reachableArea = new Pathfinder(pathfinderConfig, start, config.reachableTicks());
+            }
+        });
+    }
+
     private void setStart(WorldPoint start) {
         if (pathfinder == null) {
             return;
         }
         startPointSet = true;
-        restartPathfinding(start, pathfinder.getTarget());
+        restartPathfinding(start, pathfinder.getTargets());
     }
 
     public WorldPoint calculateMapPoint(Point point) {
@@ -406,36 +573,24 @@ public class ShortestPathPlugin extends Plugin {
     }
 
     public Point mapWorldPointToGraphicsPoint(WorldPoint worldPoint) {
-        WorldMap worldMap = client.getWorldMap();
-
-        float pixelsPerTile = worldMap.getWorldMapZoom();
-
-        Widget map = client.getWidget(WidgetInfo.WORLD_MAP_VIEW);
-        if (map != null) {
-            Rectangle worldMapRect = map.getBounds();
-
-            int widthInTiles = (int) Math.ceil(worldMapRect.getWidth() / pixelsPerTile);
-            int heightInTiles = (int) Math.ceil(worldMapRect.getHeight() / pixelsPerTile);
-
-            Point worldMapPosition = worldMap.getWorldMapPosition();
-
-            int yTileMax = worldMapPosition.getY() - heightInTiles / 2;
-            int yTileOffset = (yTileMax - worldPoint.getY() - 1) * -1;
-            int xTileOffset = worldPoint.getX() + widthInTiles / 2 - worldMapPosition.getX();
-
-            int xGraphDiff = ((int) (xTileOffset * pixelsPerTile));
-            int yGraphDiff = (int) (yTileOffset * pixelsPerTile);
-
-            yGraphDiff -= pixelsPerTile - Math.ceil(pixelsPerTile / 2);
-            xGraphDiff += pixelsPerTile - Math.ceil(pixelsPerTile / 2);
-
-            yGraphDiff = worldMapRect.height - yGraphDiff;
-            yGraphDiff += (int) worldMapRect.getY();
-            xGraphDiff += (int) worldMapRect.getX();
+        WorldMapTransform transform = new WorldMapTransform();
+        if (!transform.update(client)) {
+            return null;
+        }
+        return new Point(transform.mapX(worldPoint.getX()), transform.mapY(worldPoint.getY()));
+    }
 
-            return new Point(xGraphDiff, yGraphDiff);
+    private void addShortcutMenuEntries(MenuEntryAdded event, int position) {
+        if (config.showMenuShortcuts()) {
+            for (String name : targetSets.keySet()) {
+                addMenuEntry(event, FIND_NEAREST, ColorUtil.wrapWithColorTag(name, JagexColors.MENU_TARGET), position);
+            }
+            addMenuEntry(event, SHOW, REACHABLE, position);
+        }
+        // Still offered with the shortcuts turned off, so a shown area can always be cleared
+        if (reachableArea != null) {
+            addMenuEntry(event, CLEAR, REACHABLE, position);
         }
-        return null;
     }
 
     private void addMenuEntry(MenuEntryAdded event, String option, String target, int position) {
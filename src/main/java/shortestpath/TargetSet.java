@@ -0,0 +1,74 @@
+package shortestpath;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * This class represents a named set of tiles that can be searched for as a whole,
+ * e.g. "the nearest bank" rather than one specific bank tile.
+ */
+public class TargetSet {
+
+    /** The name of this target set, as shown in the menu */
+    @Getter
+    private final String name;
+
+    /** The tiles of this target set */
+    @Getter
+    private final Set<WorldPoint> targets;
+
+    TargetSet(final String name, final Set<WorldPoint> targets) {
+        this.name = name;
+        this.targets = Collections.unmodifiableSet(targets);
+    }
+
+    /**
+     * Reads the first three tab-separated columns (x, y, plane) of each line in a resource file.
+     * This matches the layout of the bank, fairy ring, spirit tree and gnome glider files.
+     */
+    public static TargetSet fromResource(String name, String path) {
+        Set<WorldPoint> targets = new HashSet<>();
+        try {
+            String s = new String(Util.readAllBytes(ShortestPathPlugin.class.getResourceAsStream(path)), StandardCharsets.UTF_8);
+            Scanner scanner = new Scanner(s);
+
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+
+                if (line.startsWith("#") || line.isEmpty()) {
+                    continue;
+                }
+
+                String[] p = line.split("\t");
+                targets.add(new WorldPoint(Integer.parseInt(p[0]), Integer.parseInt(p[1]), Integer.parseInt(p[2])));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return new TargetSet(name, targets);
+    }
+
+    public static Map<String, TargetSet> loadAllFromResources() {
+        Map<String, TargetSet> targetSets = new LinkedHashMap<>();
+
+        addTargetSet(targetSets, fromResource("Bank", "/banks.txt"));
+        addTargetSet(targetSets, fromResource("Fairy ring", "/fairy_rings.txt"));
+        addTargetSet(targetSets, fromResource("Spirit tree", "/spirit_trees.txt"));
+        addTargetSet(targetSets, fromResource("Gnome glider", "/gnome_glider.txt"));
+
+        return targetSets;
+    }
+
+    private static void addTargetSet(Map<String, TargetSet> targetSets, TargetSet targetSet) {
+        targetSets.put(targetSet.getName(), targetSet);
+    }
+}
@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.io.InputStream;
 
 public class Util {
+    private static final boolean FLIGHT_RECORDER_AVAILABLE = checkFlightRecorder();
+
     public static byte[] readAllBytes(InputStream in) throws IOException {
         ByteArrayOutputStream result = new ByteArrayOutputStream();
         byte[] buffer = new byte[1024];
@@ -20,6 +22,23 @@ public class Util {
         }
     }
 
+    /**
+     * Whether the runtime has Java Flight Recorder. The profiling events extend its classes, so they may only be
+     * loaded when this is true, which it is not on Java 8 or on a runtime without the jdk.jfr module.
+     */
+    public static boolean isFlightRecorderAvailable() {
+        return FLIGHT_RECORDER_AVAILABLE;
+    }
+
+    // By reflection, so that nothing of jdk.jfr is linked before it is known to be there
+    private static boolean checkFlightRecorder() {
+        try {
+            return (Boolean) Class.forName("jdk.jfr.FlightRecorder").getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            return false;
+        }
+    }
+
     public static void sleep(int time) {
         try {
             Thread.sleep(time);
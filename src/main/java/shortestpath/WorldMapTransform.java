@@ -0,0 +1,94 @@
+package shortestpath;
+
+import java.awt.Rectangle;
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.Point;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.api.worldmap.WorldMap;
+
+/**
+ * Maps world tiles to canvas coordinates on the world map. Taking the map position and zoom once per frame
+ * lets overlays map every tile of a path without allocating a {@link Point} for each.
+ */
+public class WorldMapTransform {
+    private float pixelsPerTile;
+    private int widthInTiles;
+    private int yTileMax;
+    private int mapPositionX;
+    private int mapPositionY;
+    private Rectangle worldMapRect;
+
+    /** Increases whenever the zoom, position or size of the map changes, so mapped coordinates can be kept until then */
+    @Getter
+    private int revision = 1;
+
+    // World tiles on the map, with a tile to spare on every side
+    @Getter
+    private int minVisibleX;
+    @Getter
+    private int maxVisibleX;
+    @Getter
+    private int minVisibleY;
+    @Getter
+    private int maxVisibleY;
+
+    /**
+     * Takes the current world map position and zoom. Returns false if the world map is not open.
+     */
+    public boolean update(Client client) {
+        Widget map = client.getWidget(WidgetInfo.WORLD_MAP_VIEW);
+        if (map == null) {
+            return false;
+        }
+
+        WorldMap worldMap = client.getWorldMap();
+        final float zoom = worldMap.getWorldMapZoom();
+        final Rectangle bounds = map.getBounds();
+        final Point worldMapPosition = worldMap.getWorldMapPosition();
+        if (zoom == pixelsPerTile && bounds.equals(worldMapRect) &&
+            worldMapPosition.getX() == mapPositionX && worldMapPosition.getY() == mapPositionY) {
+            return true;
+        }
+
+        pixelsPerTile = zoom;
+        worldMapRect = bounds;
+
+        widthInTiles = (int) Math.ceil(worldMapRect.getWidth() / pixelsPerTile);
+        int heightInTiles = (int) Math.ceil(worldMapRect.getHeight() / pixelsPerTile);
+
+        mapPositionX = worldMapPosition.getX();
+        mapPositionY = worldMapPosition.getY();
+        yTileMax = mapPositionY - heightInTiles / 2;
+
+        minVisibleX = mapPositionX - widthInTiles / 2 - 1;
+        maxVisibleX = minVisibleX + widthInTiles + 2;
+        minVisibleY = yTileMax - 2;
+        maxVisibleY = yTileMax + heightInTiles + 1;
+        revision++;
+        return true;
+    }
+
+    /**
+     * Whether any tile of the given world area may be on the map.
+     */
+    public boolean isVisible(int minX, int minY, int maxX, int maxY) {
+        return maxX >= minVisibleX && minX <= maxVisibleX && maxY >= minVisibleY && minY <= maxVisibleY;
+    }
+
+    public int mapX(int worldX) {
+        int xTileOffset = worldX + widthInTiles / 2 - mapPositionX;
+        int xGraphDiff = (int) (xTileOffset * pixelsPerTile);
+        xGraphDiff += pixelsPerTile - Math.ceil(pixelsPerTile / 2);
+        return xGraphDiff + (int) worldMapRect.getX();
+    }
+
+    public int mapY(int worldY) {
+        int yTileOffset = (yTileMax - worldY - 1) * -1;
+        int yGraphDiff = (int) (yTileOffset * pixelsPerTile);
+        yGraphDiff -= pixelsPerTile - Math.ceil(pixelsPerTile / 2);
+        yGraphDiff = worldMapRect.height - yGraphDiff;
+        return yGraphDiff + (int) worldMapRect.getY();
+    }
+}
@@ -1,5 +1,7 @@
 package shortestpath;
 
+import net.runelite.api.Client;
+import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldArea;
 import net.runelite.api.coords.WorldPoint;
 
@@ -33,6 +35,24 @@ public class WorldPointUtil {
         return (packedPoint >> 30) & 0x3;
     }
 
+    // The local point of a packed tile on the client's plane, or null if it is not in the scene
+    // Outside of instances this creates no WorldPoint, so it is cheap for tiles far from the player
+    public static LocalPoint toLocalPoint(Client client, int packedPoint) {
+        if (client.isInInstancedRegion()) {
+            for (WorldPoint point : WorldPoint.toLocalInstance(client, unpackWorldPoint(packedPoint))) {
+                if (point.getPlane() == client.getPlane()) {
+                    return LocalPoint.fromWorld(client, point);
+                }
+            }
+            return null;
+        }
+
+        if (unpackWorldPlane(packedPoint) != client.getPlane()) {
+            return null;
+        }
+        return LocalPoint.fromWorld(client, unpackWorldX(packedPoint), unpackWorldY(packedPoint));
+    }
+
     public static int distanceBetween(int previousPacked, int currentPacked, int diagonal) {
         final int previousX = WorldPointUtil.unpackWorldX(previousPacked);
         final int previousY = WorldPointUtil.unpackWorldY(previousPacked);
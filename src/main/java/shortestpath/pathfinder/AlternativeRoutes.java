@@ -0,0 +1,305 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import shortestpath.Transport;
+import shortestpath.WorldPointUtil;
+
+/**
+ * Finds alternatives to a route with the via-node method. The forward search that found the best route
+ * has already settled every tile cheaper than the best route; a second, backward search from the target
+ * settles the same cost range. A via node settled by both searches gives a route of cost
+ * forward cost + backward cost, and those that are not much more expensive than the best route and
+ * share few tiles with the routes picked so far are returned as alternatives. Alternatives of a kind no route
+ * picked so far is, such as walking only or without paid transports, are preferred over cheaper ones of a kind
+ * that has been picked already.
+ * The backward search is bounded by the cost of the best route and by the number of nodes the forward
+ * search expanded, so the alternatives cost at most one extra search.
+ */
+class AlternativeRoutes {
+    // Alternatives may be at most this much more expensive than the best route
+    private static final double MAX_STRETCH = 1.25;
+    // Alternatives may have at most this fraction of their tiles near a route picked before them
+    private static final double MAX_SHARED = 0.7;
+    // Tiles within this distance of a route count as near it, so parallel lanes of the same street are not alternatives
+    private static final int NEAR_DISTANCE = 4;
+    // Upper bound on the number of candidate routes that are built and compared
+    private static final int MAX_CANDIDATES = 64;
+
+    /**
+     * What a route mainly travels by. An alternative of a kind that has not been picked yet is a more useful
+     * choice than a slightly different route that travels the same way.
+     */
+    enum Kind {
+        WALKING,
+        TRANSPORT,
+        TELEPORT,
+        PAID;
+
+        static Kind of(Node route) {
+            if (route.gp > 0) {
+                return PAID;
+            }
+            Kind kind = WALKING;
+            for (Node node = route; node != null; node = node.previous) {
+                if (node instanceof TransportNode) {
+                    final Transport transport = ((TransportNode) node).getTransport();
+                    if (transport.isTeleport() || transport.isOneWay() || transport.isSpell()) {
+                        return TELEPORT;
+                    }
+                    kind = TRANSPORT;
+                }
+            }
+            return kind;
+        }
+    }
+
+    private final PathfinderConfig config;
+    private final SearchSettings settings;
+    private final CollisionMap map;
+    private final int targetZones;
+    private final Map<Integer, Node> forwardNodes;
+
+    private final Deque<Node> boundary = new ArrayDeque<>(4096);
+    private final Queue<Node> pending = new PriorityQueue<>(256, Comparator.comparingInt(node -> node.cost));
+    private final VisitedTiles visited = new VisitedTiles();
+    private final VisitedTiles settled = new VisitedTiles();
+
+    // Pending tiles are visited when they are polled, like in the forward search
+    private final NeighborVisitor enqueueNeighbor = new NeighborVisitor() {
+        @Override
+        public void walk(Node node, int packedPosition, int stepCost) {
+            if (skipNeighbor(node.packedPosition, packedPosition)) {
+                return;
+            }
+            if (stepCost == settings.getCostModel().getStepCost()) {
+                visited.set(packedPosition);
+                boundary.addLast(new Node(packedPosition, node, stepCost));
+            } else {
+                pending.add(new Node(packedPosition, node, stepCost));
+            }
+        }
+
+        @Override
+        public void transport(Node node, int packedPosition, Transport transport, int transportCost) {
+            if (!settled.get(packedPosition) && !settings.avoidZones(packedPosition, node.packedPosition, targetZones)) {
+                pending.add(new TransportNode(packedPosition, node, transport, transportCost));
+            }
+        }
+    };
+
+    /**
+     * @param forwardNodes nodes settled by the forward search that are eligible as via nodes, by packed position
+     */
+    AlternativeRoutes(PathfinderConfig config, SearchSettings settings, CollisionMap map, int targetZones,
+                      Map<Integer, Node> forwardNodes) {
+        this.config = config;
+        this.settings = settings;
+        this.map = map;
+        this.targetZones = targetZones;
+        this.forwardNodes = forwardNodes;
+    }
+
+    /**
+     * Returns the best route followed by up to count alternatives, each as the last node of a node chain.
+     */
+    List<Node> find(Node best, int count, int maxExpansions, long deadlineMillis) {
+        List<Node> routes = new ArrayList<>(count + 1);
+        routes.add(best);
+
+        Map<Integer, Node> backwardNodes = searchBackward(best, maxExpansions, deadlineMillis);
+
+        List<Node> vias = new ArrayList<>();
+        for (Map.Entry<Integer, Node> entry : backwardNodes.entrySet()) {
+            Node forward = forwardNodes.get(entry.getKey());
+            Node backward = entry.getValue();
+            if (forward.cost + backward.cost <= best.cost * MAX_STRETCH && forward.gp + backward.gp <= config.getGp()) {
+                vias.add(forward);
+            }
+        }
+        vias.sort(Comparator.comparingInt(via -> via.cost + backwardNodes.get(via.packedPosition).cost));
+
+        List<VisitedTiles> nearRoutes = new ArrayList<>(count + 1);
+        nearRoutes.add(tilesNear(best));
+        Set<Kind> kinds = EnumSet.of(Kind.of(best));
+        // Candidates of a kind that has been picked already, used if there are not enough of other kinds
+        List<Node> sameKind = new ArrayList<>();
+        int candidates = 0;
+        for (int i = 0; i < vias.size() && routes.size() <= count && candidates < MAX_CANDIDATES; ++i) {
+            Node via = vias.get(i);
+            if (isNearRoute(nearRoutes, via.packedPosition)) {
+                continue; // Would mostly retrace a route that has already been picked
+            }
+
+            candidates++;
+            Node route = join(via, backwardNodes.get(via.packedPosition), settings);
+            if (route == null || isMostlyNearRoute(nearRoutes, route)) {
+                continue;
+            }
+            if (!kinds.add(Kind.of(route))) {
+                sameKind.add(route);
+                continue;
+            }
+
+            routes.add(route);
+            nearRoutes.add(tilesNear(route));
+        }
+
+        for (int i = 0; i < sameKind.size() && routes.size() <= count; ++i) {
+            Node route = sameKind.get(i);
+            if (!isMostlyNearRoute(nearRoutes, route)) {
+                routes.add(route);
+                nearRoutes.add(tilesNear(route));
+            }
+        }
+
+        routes.sort(Comparator.comparingInt(route -> route.cost));
+        return routes;
+    }
+
+    /**
+     * Searches from the target towards the start over reversed edges, keeping the backward node of every
+     * via node that is reached. The previous node of a backward node is the next tile towards the target.
+     */
+    private Map<Integer, Node> searchBackward(Node best, int maxExpansions, long deadlineMillis) {
+        Map<Integer, Node> backwardNodes = new HashMap<>();
+        Node root = new Node(best.packedPosition, null);
+        boundary.addFirst(root);
+        visited.set(root.packedPosition);
+
+        int expansions = 0;
+        while (expansions++ < maxExpansions) {
+            Node node = pollNext();
+            if (node == null) {
+                break;
+            }
+            if (node.cost > best.cost || System.currentTimeMillis() > deadlineMillis) {
+                break;
+            }
+
+            if (config.getGp() < node.gp) {
+                continue;
+            }
+
+            if (forwardNodes.containsKey(node.packedPosition)) {
+                backwardNodes.put(node.packedPosition, node);
+            }
+
+            map.visitReverseNeighbors(node, config, settings, enqueueNeighbor);
+        }
+
+        boundary.clear();
+        pending.clear();
+        visited.clear();
+        settled.clear();
+        return backwardNodes;
+    }
+
+    // The cheapest of the boundary and the pending queue, dropping nodes whose tile has been expanded already
+    private Node pollNext() {
+        while (true) {
+            Node node = boundary.peekFirst();
+            Node p = pending.peek();
+            if (p == null || (node != null && p.cost >= node.cost)) {
+                node = boundary.pollFirst();
+                if (node == null || settled.set(node.packedPosition)) {
+                    return node;
+                }
+                continue;
+            }
+
+            pending.poll();
+            if (config.getGp() >= p.gp && settled.set(p.packedPosition)) {
+                visited.set(p.packedPosition);
+                return p;
+            }
+        }
+    }
+
+    // The edge is travelled from the neighbor to the node
+    private boolean skipNeighbor(int packedPosition, int neighborPosition) {
+        return visited.get(neighborPosition) || settings.avoidZones(neighborPosition, packedPosition, targetZones);
+    }
+
+    /**
+     * Extends the forward node chain ending at the via node with the backward node chain from the via node
+     * to the target. Returns null if the joined route visits a tile twice.
+     */
+    private static Node join(Node forward, Node backward, SearchSettings settings) {
+        Set<Integer> tiles = tilesOf(forward);
+        Node route = forward;
+        for (Node node = backward; node.previous != null; node = node.previous) {
+            final int next = node.previous.packedPosition;
+            if (!tiles.add(next)) {
+                return null;
+            }
+            if (node instanceof TransportNode) {
+                // A backward transport node sits on the transport origin and leads to its destination
+                final Transport transport = ((TransportNode) node).getTransport();
+                route = new TransportNode(next, route, transport, settings.getCostModel().getTransportCost(transport));
+            } else {
+                route = new Node(next, route, settings.getStepCost(next));
+            }
+        }
+        return route;
+    }
+
+    private static Set<Integer> tilesOf(Node route) {
+        Set<Integer> tiles = new HashSet<>();
+        for (Node node = route; node != null; node = node.previous) {
+            tiles.add(node.packedPosition);
+        }
+        return tiles;
+    }
+
+    private static VisitedTiles tilesNear(Node route) {
+        VisitedTiles tiles = new VisitedTiles();
+        for (Node node = route; node != null; node = node.previous) {
+            final int x = WorldPointUtil.unpackWorldX(node.packedPosition);
+            final int y = WorldPointUtil.unpackWorldY(node.packedPosition);
+            final int plane = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+            for (int dx = -NEAR_DISTANCE; dx <= NEAR_DISTANCE; ++dx) {
+                for (int dy = -NEAR_DISTANCE; dy <= NEAR_DISTANCE; ++dy) {
+                    tiles.set(x + dx, y + dy, plane);
+                }
+            }
+        }
+        return tiles;
+    }
+
+    private static boolean isNearRoute(List<VisitedTiles> nearRoutes, int packedPosition) {
+        for (VisitedTiles tiles : nearRoutes) {
+            if (tiles.get(packedPosition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMostlyNearRoute(List<VisitedTiles> nearRoutes, Node route) {
+        for (VisitedTiles tiles : nearRoutes) {
+            int near = 0;
+            int total = 0;
+            for (Node node = route; node != null; node = node.previous) {
+                if (tiles.get(node.packedPosition)) {
+                    near++;
+                }
+                total++;
+            }
+            if (near > total * MAX_SHARED) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
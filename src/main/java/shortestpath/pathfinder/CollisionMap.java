@@ -13,13 +13,49 @@ public class CollisionMap {
     private static final OrdinalDirection[] ORDINAL_VALUES = OrdinalDirection.values();
 
     private final SplitFlagMap collisionData;
+    // The version of the collision data lookups are made in, which only changes when the map is updated
+    private SplitFlagMap.Version version;
 
     public CollisionMap(SplitFlagMap collisionData) {
+        this(collisionData, collisionData.getLatest());
+    }
+
+    private CollisionMap(SplitFlagMap collisionData, SplitFlagMap.Version version) {
         this.collisionData = collisionData;
+        this.version = version;
+    }
+
+    /**
+     * Moves the map on to the collision data with every patch applied so far. Until it is updated again,
+     * the map keeps looking up the same version, however the collision data is patched in the meantime.
+     */
+    public void update() {
+        version = collisionData.getLatest();
+    }
+
+    /**
+     * A map of the same version of the collision data, for another thread, as the scratch space is not shared.
+     */
+    public CollisionMap copy() {
+        return new CollisionMap(collisionData, version);
     }
 
     public boolean get(int x, int y, int z, int flag) {
-        return collisionData.get(x, y, z, flag);
+        return version.get(x, y, z, flag);
+    }
+
+    /**
+     * Changes whenever the collision data is patched, so what is worked out from it can be worked out again.
+     */
+    public int getRevision() {
+        return version.getRevision();
+    }
+
+    /**
+     * Changes whenever a tile of the region is patched.
+     */
+    public int getRevision(int regionX, int regionY) {
+        return version.getRevision(regionX, regionY);
     }
 
     public boolean n(int x, int y, int z) {
@@ -65,35 +101,85 @@ public class CollisionMap {
         return WorldPointUtil.packWorldPoint(x + direction.x, y + direction.y, plane);
     }
 
-    // This is only safe if pathfinding is single-threaded
+    // Scratch space, so a map must only be used by one thread at a time; PathfinderConfig.getMap gives every thread its own
     private final List<Node> neighbors = new ArrayList<>(16);
     private final boolean[] traversable = new boolean[8];
 
-    public List<Node> getNeighbors(Node node, PathfinderConfig config) {
-        final int x = WorldPointUtil.unpackWorldX(node.packedPosition);
-        final int y = WorldPointUtil.unpackWorldY(node.packedPosition);
-        final int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+    // Collects the neighbors into the shared list for the callers that want nodes
+    private final NeighborVisitor collector = new NeighborVisitor() {
+        @Override
+        public void walk(Node node, int packedPosition, int stepCost) {
+            neighbors.add(new Node(packedPosition, node, stepCost));
+        }
 
+        @Override
+        public void transport(Node node, int packedPosition, Transport transport, int transportCost) {
+            neighbors.add(new TransportNode(packedPosition, node, transport, transportCost));
+        }
+    };
+
+    public List<Node> getNeighbors(Node node, PathfinderConfig config, SearchSettings settings) {
         neighbors.clear();
+        visitNeighbors(node, config, settings, collector);
+        return neighbors;
+    }
+
+    /**
+     * Passes every neighbor of the node to the visitor, first the transports and then the walking steps,
+     * without creating nodes for them.
+     */
+    public void visitNeighbors(Node node, PathfinderConfig config, SearchSettings settings, NeighborVisitor visitor) {
+        final CostModel costModel = settings.getCostModel();
 
         @SuppressWarnings("unchecked") // Casting EMPTY_LIST to List<Transport> is safe here
-        List<Transport> transports = config.getTransportsPacked().getOrDefault(node.packedPosition, (List<Transport>)Collections.EMPTY_LIST);
+        List<Transport> transports = !config.getTransportOrigins().get(node.packedPosition) ? (List<Transport>)Collections.EMPTY_LIST :
+            config.getTransportsPacked().getOrDefault(node.packedPosition, (List<Transport>)Collections.EMPTY_LIST);
 
         // Transports are pre-filtered by PathfinderConfig.refreshTransportData
         // Thus any transports in the list are guaranteed to be valid per the user's settings
         for (int i = 0; i < transports.size(); ++i) {
             Transport transport = transports.get(i);
-            neighbors.add(new TransportNode(transport.getDestination(), node, transport));
+            visitor.transport(node, WorldPointUtil.packWorldPoint(transport.getDestination()), transport, costModel.getTransportCost(transport));
         }
 
         if (node.isRootNode()) {
             transports = config.getTransportsPacked().getOrDefault(null, (List<Transport>)Collections.EMPTY_LIST);
             for (int i = 0; i < transports.size(); ++i) {
                 Transport transport = transports.get(i);
-                neighbors.add(new TransportNode(transport.getDestination(), node, transport));
+                visitor.transport(node, WorldPointUtil.packWorldPoint(transport.getDestination()), transport, costModel.getTransportCost(transport));
             }
         }
 
+        visitWalkingNeighbors(node, config, settings, false, visitor);
+    }
+
+    /**
+     * The neighbors a node can be reached from, for searching from a target towards a start.
+     * Walking is symmetric; transports are looked up by destination and lead to their origin.
+     * Transports without an origin can only be used at the start and are left out.
+     */
+    public void visitReverseNeighbors(Node node, PathfinderConfig config, SearchSettings settings, NeighborVisitor visitor) {
+        final CostModel costModel = settings.getCostModel();
+
+        @SuppressWarnings("unchecked") // Casting EMPTY_LIST to List<Transport> is safe here
+        List<Transport> transports = !config.getTransportDestinations().get(node.packedPosition) ? (List<Transport>)Collections.EMPTY_LIST :
+            config.getTransportsPackedByDestination().getOrDefault(node.packedPosition, (List<Transport>)Collections.EMPTY_LIST);
+        for (int i = 0; i < transports.size(); ++i) {
+            Transport transport = transports.get(i);
+            visitor.transport(node, WorldPointUtil.packWorldPoint(transport.getOrigin()), transport, costModel.getTransportCost(transport));
+        }
+
+        visitWalkingNeighbors(node, config, settings, true, visitor);
+    }
+
+    // A step costs what walking onto its tile costs; searching backwards, the steps lead onto the node instead
+    private void visitWalkingNeighbors(Node node, PathfinderConfig config, SearchSettings settings, boolean reverse,
+                                       NeighborVisitor visitor) {
+        final int reverseStepCost = reverse ? settings.getStepCost(node.packedPosition) : 0;
+        final int x = WorldPointUtil.unpackWorldX(node.packedPosition);
+        final int y = WorldPointUtil.unpackWorldY(node.packedPosition);
+        final int z = WorldPointUtil.unpackWorldPlane(node.packedPosition);
+
         if (isBlocked(x, y, z)) {
             boolean westBlocked = isBlocked(x - 1, y, z);
             boolean eastBlocked = isBlocked(x + 1, y, z);
@@ -126,17 +212,16 @@ public class CollisionMap {
             OrdinalDirection d = ORDINAL_VALUES[i];
             int neighborPacked = packedPointFromOrdinal(node.packedPosition, d);
             if (traversable[i]) {
-                neighbors.add(new Node(neighborPacked, node));
-            } else if (Math.abs(d.x + d.y) == 1 && isBlocked(x + d.x, y + d.y, z)) {
+                visitor.walk(node, neighborPacked, reverse ? reverseStepCost : settings.getStepCost(neighborPacked));
+            } else if (Math.abs(d.x + d.y) == 1 && isBlocked(x + d.x, y + d.y, z) && config.getTransportOrigins().get(neighborPacked)) {
                 @SuppressWarnings("unchecked") // Casting EMPTY_LIST to List<Transport> is safe here
                 List<Transport> neighborTransports = config.getTransportsPacked().getOrDefault(neighborPacked, (List<Transport>)Collections.EMPTY_LIST);
                 for (int t = 0; t < neighborTransports.size(); ++t) {
                     Transport transport = neighborTransports.get(t);
-                    neighbors.add(new Node(transport.getOrigin(), node));
+                    final int originPacked = WorldPointUtil.packWorldPoint(transport.getOrigin());
+                    visitor.walk(node, originPacked, reverse ? reverseStepCost : settings.getStepCost(originPacked));
                 }
             }
         }
-
-        return neighbors;
     }
 }
@@ -0,0 +1,17 @@
+package shortestpath.pathfinder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("shortestpath.CollisionMapLoad")
+@Label("Collision Map Load")
+@Category("Shortest Path")
+class CollisionMapLoadEvent extends Event {
+    @Label("Regions")
+    int regions;
+
+    @Label("Patched Regions")
+    int patchedRegions;
+}
@@ -0,0 +1,147 @@
+package shortestpath.pathfinder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * New flags for some tiles of the collision map, grouped by region so that {@link SplitFlagMap#apply} only
+ * copies the regions that are patched. A tile is packed into an int of its position in the region, its
+ * plane and its flags as one bit per flag.
+ * <p>
+ * A patch file is gzipped and has a header of a magic number, the format version and the number of regions,
+ * followed for every region by its id, its number of tiles and the packed tiles, in order.
+ */
+public class CollisionPatch {
+    private static final int MAGIC = 0x53504350;
+    private static final int FORMAT_VERSION = 1;
+    // The position and plane of a packed tile
+    private static final int POSITION_MASK = (1 << 14) - 1;
+
+    private final Map<Integer, Tiles> regions = new HashMap<>();
+
+    /**
+     * Sets the flags of the tile, as bit i for flag i, replacing any flags set for it earlier in the patch.
+     */
+    public void set(int x, int y, int plane, int flags) {
+        final int region = (x / REGION_SIZE) << 8 | (y / REGION_SIZE);
+        regions.computeIfAbsent(region, k -> new Tiles()).add(pack(x % REGION_SIZE, y % REGION_SIZE, plane, flags));
+    }
+
+    public boolean isEmpty() {
+        return regions.isEmpty();
+    }
+
+    /** The ids of the patched regions */
+    public Set<Integer> getRegions() {
+        return regions.keySet();
+    }
+
+    public int getTileCount() {
+        int count = 0;
+        for (Tiles tiles : regions.values()) {
+            count += tiles.size;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the patch with its regions and tiles sorted, so the same patch always makes the same file.
+     * The stream is left open.
+     */
+    public void write(OutputStream stream) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(stream);
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(gzip));
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(regions.size());
+        for (int region : new TreeSet<>(regions.keySet())) {
+            // By position, keeping the last flags set for a tile
+            Map<Integer, Integer> tiles = new TreeMap<>();
+            for (int i = 0; i < getTileCount(region); ++i) {
+                final int tile = getTiles(region)[i];
+                tiles.put(tile & POSITION_MASK, tile);
+            }
+            output.writeInt(region);
+            output.writeInt(tiles.size());
+            for (int tile : tiles.values()) {
+                output.writeInt(tile);
+            }
+        }
+        output.flush();
+        gzip.finish();
+    }
+
+    public static CollisionPatch read(InputStream stream) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a collision patch of version " + FORMAT_VERSION);
+        }
+        CollisionPatch patch = new CollisionPatch();
+        final int regionCount = input.readInt();
+        for (int i = 0; i < regionCount; ++i) {
+            final int region = input.readInt();
+            final int tileCount = input.readInt();
+            Tiles tiles = patch.regions.computeIfAbsent(region, k -> new Tiles());
+            for (int j = 0; j < tileCount; ++j) {
+                tiles.add(input.readInt());
+            }
+        }
+        return patch;
+    }
+
+    // The packed tiles of the region in the order they were set; the array may be longer than the count
+    int[] getTiles(int region) {
+        return regions.get(region).tiles;
+    }
+
+    int getTileCount(int region) {
+        return regions.get(region).size;
+    }
+
+    static int pack(int regionTileX, int regionTileY, int plane, int flags) {
+        return regionTileX | regionTileY << 6 | plane << 12 | flags << 14;
+    }
+
+    static int unpackX(int tile) {
+        return tile & 0x3F;
+    }
+
+    static int unpackY(int tile) {
+        return (tile >> 6) & 0x3F;
+    }
+
+    static int unpackPlane(int tile) {
+        return (tile >> 12) & 0x3;
+    }
+
+    static int unpackFlags(int tile) {
+        return tile >>> 14;
+    }
+
+    private static class Tiles {
+        int[] tiles = new int[16];
+        int size;
+
+        void add(int tile) {
+            if (size == tiles.length) {
+                tiles = Arrays.copyOf(tiles, size * 2);
+            }
+            tiles[size++] = tile;
+        }
+    }
+}
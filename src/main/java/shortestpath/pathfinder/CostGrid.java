@@ -0,0 +1,101 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * Region-sparse grid of tile costs. Only the planes of the regions that are written to are allocated,
+ * so a grid covering a few dozen regions takes a few MB regardless of how far apart they are.
+ */
+public class CostGrid {
+    public static final int UNREACHED = -1;
+
+    private final SplitFlagMap.RegionExtent regionExtents;
+    private final int widthInclusive;
+
+    // Indexed by region, then by plane; each plane is REGION_SIZE * REGION_SIZE costs
+    private final int[][][] regions;
+
+    public CostGrid() {
+        regionExtents = SplitFlagMap.getRegionExtents();
+        widthInclusive = regionExtents.getWidth() + 1;
+        final int heightInclusive = regionExtents.getHeight() + 1;
+
+        regions = new int[widthInclusive * heightInclusive][][];
+    }
+
+    public int get(int packedPoint) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+        return get(x, y, plane);
+    }
+
+    public int get(int x, int y, int plane) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regions.length || plane < 0 || plane >= MAX_Z) {
+            return UNREACHED;
+        }
+
+        final int[][] region = regions[regionIndex];
+        if (region == null || region[plane] == null) {
+            return UNREACHED;
+        }
+
+        return region[plane][(y % REGION_SIZE) * REGION_SIZE + (x % REGION_SIZE)];
+    }
+
+    public void set(int packedPoint, int cost) {
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedPoint);
+        set(x, y, plane, cost);
+    }
+
+    public void set(int x, int y, int plane, int cost) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regions.length || plane < 0 || plane >= MAX_Z) {
+            return;
+        }
+
+        int[][] region = regions[regionIndex];
+        if (region == null) {
+            region = new int[MAX_Z][];
+            regions[regionIndex] = region;
+        }
+
+        int[] costs = region[plane];
+        if (costs == null) {
+            costs = new int[REGION_SIZE * REGION_SIZE];
+            Arrays.fill(costs, UNREACHED);
+            region[plane] = costs;
+        }
+
+        costs[(y % REGION_SIZE) * REGION_SIZE + (x % REGION_SIZE)] = cost;
+    }
+
+    /**
+     * Whether any tile of the region containing the given tile has a cost on the given plane.
+     * Lets callers skip whole regions without looking at every tile.
+     */
+    public boolean hasRegion(int x, int y, int plane) {
+        final int regionIndex = getRegionIndex(x / REGION_SIZE, y / REGION_SIZE);
+        if (regionIndex < 0 || regionIndex >= regions.length || plane < 0 || plane >= MAX_Z) {
+            return false;
+        }
+
+        final int[][] region = regions[regionIndex];
+        return region != null && region[plane] != null;
+    }
+
+    public void clear() {
+        Arrays.fill(regions, null);
+    }
+
+    private int getRegionIndex(int regionX, int regionY) {
+        return (regionX - regionExtents.minX) + (regionY - regionExtents.minY) * widthInclusive;
+    }
+}
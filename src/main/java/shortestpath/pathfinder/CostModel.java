@@ -0,0 +1,25 @@
+package shortestpath.pathfinder;
+
+import shortestpath.Transport;
+
+/**
+ * Decides what moving along a path costs, which is what the search minimises.
+ * Costs are in units chosen by the model; {@link #toTicks(int)} converts them for display.
+ */
+public interface CostModel {
+    /**
+     * The cost of a walking step to an adjacent tile, diagonal or not.
+     * This has to be the same for every step of a search, as walking nodes are queued in order of cost.
+     * Steps onto tiles of a cost area cost a multiple of it and are queued with the transports instead.
+     */
+    int getStepCost();
+
+    /**
+     * The cost of using a transport, including waiting and animation time and any weight given to its gp cost.
+     */
+    int getTransportCost(Transport transport);
+
+    int toTicks(int cost);
+
+    int fromTicks(int ticks);
+}
@@ -0,0 +1,25 @@
+package shortestpath.pathfinder;
+
+/**
+ * How many times the cost of a step walking onto a tile is multiplied, for areas that are best kept out of
+ * without being avoided altogether. Where areas overlap the highest multiplier counts.
+ * Multipliers are at least 1, so walking nodes can still be queued in order of cost.
+ */
+public class CostMultipliers {
+    public static final int MAX_MULTIPLIER = 255;
+
+    // 0 for tiles without a multiplier
+    private final RegionGrid multipliers = new RegionGrid();
+
+    public int get(int packedPoint) {
+        return Math.max(multipliers.get(packedPoint), 1);
+    }
+
+    /**
+     * Multiplies the cost of walking onto the tiles from the south-west corner up to and including the north-east corner.
+     */
+    public void add(int multiplier, int minX, int minY, int maxX, int maxY, int plane) {
+        final int clamped = Math.max(1, Math.min(multiplier, MAX_MULTIPLIER));
+        multipliers.update(minX, minY, maxX, maxY, plane, previous -> Math.max(previous, clamped));
+    }
+}
@@ -40,6 +40,17 @@ public class FlagMap {
         flags = BitSet.valueOf(buffer);
     }
 
+    public FlagMap(FlagMap other) {
+        minX = other.minX;
+        minY = other.minY;
+        maxX = other.maxX;
+        maxY = other.maxY;
+        flagCount = other.flagCount;
+        width = other.width;
+        height = other.height;
+        flags = (BitSet) other.flags.clone();
+    }
+
     public byte[] toBytes() {
         byte[] bytes = new byte[16 + flags.size()];
         ByteBuffer buffer = ByteBuffer.wrap(bytes);
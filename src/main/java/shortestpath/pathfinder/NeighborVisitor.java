@@ -0,0 +1,19 @@
+package shortestpath.pathfinder;
+
+import shortestpath.Transport;
+
+/**
+ * Receives the neighbors of a node from {@link CollisionMap#visitNeighbors} as packed positions and costs,
+ * so that a search only creates nodes for the neighbors it keeps.
+ */
+public interface NeighborVisitor {
+    /**
+     * A tile reached from the node by walking a single step.
+     */
+    void walk(Node node, int packedPosition, int stepCost);
+
+    /**
+     * A tile reached from the node by taking the transport.
+     */
+    void transport(Node node, int packedPosition, Transport transport, int transportCost);
+}
@@ -13,23 +13,27 @@ public class Node {
     public int gp;
     public final int steps;
 
-    public Node(WorldPoint position, Node previous, int wait) {
-        this(WorldPointUtil.packWorldPoint(position), previous, wait);
+    /**
+     * @param stepCost the cost of getting here from the previous node, as decided by the {@link CostModel}
+     */
+    public Node(WorldPoint position, Node previous, int stepCost) {
+        this(WorldPointUtil.packWorldPoint(position), previous, stepCost);
     }
 
     public Node(WorldPoint position, Node previous) {
         this(position, previous, 0);
     }
 
-    public Node(int packedPosition, Node previous, int wait) {
+    public Node(int packedPosition, Node previous, int stepCost) {
         this.packedPosition = packedPosition;
         this.previous = previous;
-        this.cost = cost(previous, wait);
 
         if (previous == null) {
+            cost = 0;
             gp = 0;
             steps = 0;
         } else {
+            cost = previous.cost + stepCost;
             gp = previous.gp;
             steps = previous.steps + 1;
         }
@@ -79,22 +83,4 @@ public class Node {
 
         return new ArrayList<>(path);
     }
-
-    private int cost(Node previous, int wait) {
-        int previousCost = 0;
-        int distance = 0;
-
-        if (previous != null) {
-            previousCost = previous.cost;
-            distance = WorldPointUtil.distanceBetween(previous.packedPosition, packedPosition);
-            final int previousPlane = WorldPointUtil.unpackWorldPlane(previous.packedPosition);
-            final int currentPlane = WorldPointUtil.unpackWorldPlane(previous.packedPosition);
-            boolean isTransport = distance > 1 || previousPlane != currentPlane;
-            if (isTransport) {
-                distance = wait;
-            }
-        }
-
-        return previousCost + distance;
-    }
 }
@@ -0,0 +1,165 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.WorldPointUtil;
+
+/**
+ * A path as packed tiles with the cost of reaching each of them. Lets overlays walk long paths every frame
+ * without creating a {@link WorldPoint} per tile; those are only made where another API needs one.
+ * The step count of a tile is its index, as every tile of a path is one step after the previous one.
+ */
+public class PackedPath {
+    public static final PackedPath EMPTY = new PackedPath(new int[0], new int[0]);
+    // Further distances make the index cost more to build than the scans it saves
+    private static final int MAX_INDEXED_DISTANCE = 64;
+
+    private final int[] points;
+    private final int[] costs;
+
+    // Built on first use, as most snapshots are replaced before anything asks
+    private VisitedTiles tiles;
+    private VisitedTiles nearTiles;
+    private int nearDistance = -1;
+
+    private PackedPath(int[] points, int[] costs) {
+        this.points = points;
+        this.costs = costs;
+    }
+
+    static PackedPath fromLastNode(Node lastNode) {
+        if (lastNode == null) {
+            return EMPTY;
+        }
+
+        int[] points = new int[lastNode.steps + 1];
+        int[] costs = new int[points.length];
+        for (Node node = lastNode; node != null; node = node.previous) {
+            points[node.steps] = node.packedPosition;
+            costs[node.steps] = node.cost;
+        }
+        return new PackedPath(points, costs);
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /** The packed tile at the given index */
+    public int get(int index) {
+        return points[index];
+    }
+
+    public int getX(int index) {
+        return WorldPointUtil.unpackWorldX(points[index]);
+    }
+
+    public int getY(int index) {
+        return WorldPointUtil.unpackWorldY(points[index]);
+    }
+
+    public int getPlane(int index) {
+        return WorldPointUtil.unpackWorldPlane(points[index]);
+    }
+
+    /** The cost of the path up to and including the tile at the given index, in the units of the search's cost model */
+    public int getCost(int index) {
+        return costs[index];
+    }
+
+    public WorldPoint getWorldPoint(int index) {
+        return WorldPointUtil.unpackWorldPoint(points[index]);
+    }
+
+    /** The index of the last visit of the packed tile, or -1 if the path does not visit it */
+    public int lastIndexOf(int packedPoint) {
+        for (int i = points.length - 1; i >= 0; --i) {
+            if (points[i] == packedPoint) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized boolean contains(int packedPoint) {
+        if (tiles == null) {
+            tiles = new VisitedTiles();
+            for (int point : points) {
+                tiles.set(point);
+            }
+        }
+        final int x = WorldPointUtil.unpackWorldX(packedPoint);
+        final int y = WorldPointUtil.unpackWorldY(packedPoint);
+        if (!tiles.isInBounds(x, y)) {
+            return lastIndexOf(packedPoint) >= 0; // Not indexed
+        }
+        return tiles.get(x, y, WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    /**
+     * Whether a tile of the path is closer than the given distance to the packed tile, ignoring planes
+     * like {@link WorldPointUtil#distanceBetween(int, int)}. The tiles within the distance are indexed
+     * on the first call, so later calls with the same distance take constant time.
+     */
+    public synchronized boolean isNear(int packedPoint, int distance) {
+        if (distance <= 0 || points.length == 0) {
+            return false;
+        }
+
+        if (distance <= MAX_INDEXED_DISTANCE) {
+            if (nearTiles == null || nearDistance != distance) {
+                nearTiles = dilate(distance - 1);
+                nearDistance = distance;
+            }
+            final int x = WorldPointUtil.unpackWorldX(packedPoint);
+            final int y = WorldPointUtil.unpackWorldY(packedPoint);
+            // Tiles outside the extents are not indexed, so they are checked against every tile instead
+            if (nearTiles.isInBounds(x, y)) {
+                return nearTiles.get(x, y, 0);
+            }
+        }
+
+        for (int point : points) {
+            if (WorldPointUtil.distanceBetween(packedPoint, point) < distance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Marks every tile within the radius of the path on plane 0. Consecutive tiles of a walked path are
+    // adjacent, so only the row and column their squares do not share are marked for them.
+    private VisitedTiles dilate(int radius) {
+        VisitedTiles near = new VisitedTiles();
+        int previousX = 0;
+        int previousY = 0;
+        for (int i = 0; i < points.length; ++i) {
+            final int x = getX(i);
+            final int y = getY(i);
+            final int dx = x - previousX;
+            final int dy = y - previousY;
+            if (i == 0 || Math.abs(dx) > 1 || Math.abs(dy) > 1) {
+                for (int ty = y - radius; ty <= y + radius; ++ty) {
+                    for (int tx = x - radius; tx <= x + radius; ++tx) {
+                        near.set(tx, ty, 0);
+                    }
+                }
+            } else {
+                for (int t = -radius; t <= radius; ++t) {
+                    if (dx != 0) {
+                        near.set(x + dx * radius, y + t, 0);
+                    }
+                    if (dy != 0) {
+                        near.set(x + t, y + dy * radius, 0);
+                    }
+                }
+            }
+            previousX = x;
+            previousY = y;
+        }
+        return near;
+    }
+}
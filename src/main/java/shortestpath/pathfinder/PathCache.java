@@ -0,0 +1,125 @@
+package shortestpath.pathfinder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.WorldPointUtil;
+
+/**
+ * Least recently used cache of the routes found by completed searches. Entries are keyed by the start,
+ * the targets and the fingerprint of the settings and transports the search used, so a route is only
+ * reused when a new search would have found the same one.
+ * Accessed from both the client thread and pathfinding threads.
+ */
+public class PathCache {
+    static final int MAX_ENTRIES = 64;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public synchronized Entry get(int startPacked, Set<WorldPoint> targets, long fingerprint) {
+        return entries.get(new Key(startPacked, targets, fingerprint));
+    }
+
+    public synchronized void put(int startPacked, Set<WorldPoint> targets, long fingerprint, Entry entry) {
+        entries.put(new Key(startPacked, targets, fingerprint), entry);
+    }
+
+    /**
+     * Removes the entries with a route or alternative that goes through any of the regions, such as after
+     * the collision data of the regions has been patched. Routes elsewhere are still what a search would find.
+     */
+    public synchronized void invalidate(Set<Integer> regions) {
+        entries.values().removeIf(entry -> crosses(entry.lastNode, regions) ||
+            entry.routes.stream().anyMatch(route -> crosses(route, regions)));
+    }
+
+    static boolean crosses(Node lastNode, Set<Integer> regions) {
+        for (Node node = lastNode; node != null; node = node.previous) {
+            if (regions.contains(regionId(node.packedPosition))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int regionId(int packedPosition) {
+        return (WorldPointUtil.unpackWorldX(packedPosition) >> 6) << 8 | (WorldPointUtil.unpackWorldY(packedPosition) >> 6);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static class Entry {
+        /** The target that was reached, which is one of the targets searched for */
+        @Getter
+        private final WorldPoint target;
+
+        /** The last node of the route; earlier nodes are reached through {@link Node#previous} */
+        @Getter
+        private final Node lastNode;
+
+        /** The route and its alternatives, if any were searched for */
+        @Getter
+        private final List<Node> routes;
+
+        /**
+         * The most coins any of the routes needs. The fingerprint only tells apart coins that cover different
+         * transports, so a route through several paid transports may need more than the coins that are left.
+         */
+        public int getGp() {
+            int gp = lastNode.gp;
+            for (Node route : routes) {
+                gp = Math.max(gp, route.gp);
+            }
+            return gp;
+        }
+
+        Entry(WorldPoint target, Node lastNode, List<Node> routes) {
+            this.target = target;
+            this.lastNode = lastNode;
+            this.routes = routes;
+        }
+    }
+
+    static class Key {
+        private final int startPacked;
+        private final Set<WorldPoint> targets;
+        private final long fingerprint;
+
+        Key(int startPacked, Set<WorldPoint> targets, long fingerprint) {
+            this.startPacked = startPacked;
+            this.targets = targets;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return startPacked == other.startPacked && fingerprint == other.fingerprint && targets.equals(other.targets);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * startPacked + Long.hashCode(fingerprint)) * 31 + targets.hashCode();
+        }
+    }
+}
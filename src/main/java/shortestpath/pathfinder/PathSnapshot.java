@@ -0,0 +1,53 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * The best path of a search at one point in time. Snapshots are never modified after they are built,
+ * so they can be read from any thread while the search publishes newer ones.
+ */
+public class PathSnapshot {
+    static final PathSnapshot EMPTY = new PathSnapshot(0, null);
+
+    /** Increases with every snapshot built of a search */
+    @Getter
+    private final int version;
+
+    // The node the snapshot was built from, to tell whether the best path has changed since
+    final Node lastNode;
+
+    @Getter
+    private final PackedPath path;
+
+    @Getter
+    private final List<String> actions;
+
+    /** The cost of the whole path, in the units of the search's cost model */
+    @Getter
+    private final int cost;
+
+    PathSnapshot(int version, Node lastNode) {
+        this.version = version;
+        this.lastNode = lastNode;
+        this.path = PackedPath.fromLastNode(lastNode);
+        if (lastNode == null) {
+            actions = Collections.emptyList();
+            cost = 0;
+            return;
+        }
+
+        List<String> actions = new ArrayList<>();
+        for (Node node = lastNode; node != null; node = node.previous) {
+            if (node instanceof TransportNode) {
+                actions.add(((TransportNode) node).getTransport().getDescription());
+            }
+        }
+        Collections.reverse(actions);
+
+        this.actions = Collections.unmodifiableList(actions);
+        this.cost = lastNode.cost;
+    }
+}
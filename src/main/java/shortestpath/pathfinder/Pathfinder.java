@@ -1,59 +1,242 @@
 package shortestpath.pathfinder;
 
+import java.io.File;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.Getter;
 import net.runelite.api.coords.WorldPoint;
+import shortestpath.Transport;
+import shortestpath.Util;
 import shortestpath.WorldPointUtil;
 
 public class Pathfinder implements Runnable {
+    // Besides transport destinations, tiles on a lattice with this spacing are kept as via nodes for alternative routes
+    private static final int VIA_NODE_SPACING = 8;
+    // A previous path further away than this is not worth searching back to; the whole path is searched again instead
+    private static final int MAX_SPLICE_DISTANCE = 64;
+    // Heuristic weights of the quick searches that find a first complete path before the exact search, greediest first
+    private static final int[] ANYTIME_WEIGHTS = {4, 2};
+    // How long the quick searches may take in total before the exact search starts regardless
+    private static final long ANYTIME_BUDGET_MILLIS = 50;
+    // How often the search builds a snapshot of its best path for readers, at most
+    private static final long PUBLISH_INTERVAL_NANOS = 50_000_000L;
+
     private AtomicBoolean done = new AtomicBoolean();
     private AtomicBoolean cancelled = new AtomicBoolean();
 
     @Getter
     private final WorldPoint start;
+    /**
+     * The target the search is heading for. When searching for the nearest of several targets this is
+     * the target closest to the start until one of the targets has been reached.
+     */
+    @Getter
+    private volatile WorldPoint target;
     @Getter
-    private final WorldPoint target;
+    private final Set<WorldPoint> targets;
 
     private final int startPacked;
     private final int targetPacked;
+    // Only used when there is more than one target; a single target is checked against targetPacked
+    private final VisitedTiles targetTiles;
 
     private final PathfinderConfig config;
-    private final CollisionMap map;
-    private final boolean targetInWilderness;
+    // Taken on the search thread, as the map's scratch space is per thread
+    private CollisionMap map;
+    // The zones every target is in, which the search may enter even if they are avoided
+    private final int targetZones;
+    // The config fingerprint at the time the search was started, under which its result is cached
+    private final long fingerprint;
+    // The revision of the collision data the search looks up; a path found on older data is not cached
+    private volatile int revision;
+
+    // Captured once, so refreshing the settings during the search does not change its zones or costs
+    private final SearchSettings settings;
+    // Costs of this search are in the units of this model
+    @Getter
+    private final CostModel costModel;
+
+    // Only used when expanding for a fixed budget instead of searching for a target
+    @Getter
+    private final CostGrid reachable;
+    @Getter
+    private final int maxCost;
+
+    // Only used when recalculating; the last node of the path to search back to and how many ticks longer
+    // than a straight line the way back may be
+    private final Node previousPath;
+    private final int spliceSlack;
 
     // Capacities should be enough to store all nodes without requiring the queue to grow
     // They were found by checking the max queue size
     private final Deque<Node> boundary = new ArrayDeque<>(4096);
-    private final Queue<Node> pending = new PriorityQueue<>(256);
+    // Transports, and walking steps onto tiles with a cost multiplier, in order of cost
+    private final Queue<Node> pending = new PriorityQueue<>(256, Comparator.comparingInt(node -> node.cost));
+    // Tiles queued on the boundary or expanded, and tiles expanded; a tile on the boundary can still be expanded
+    // first from the pending queue, if a transport or a step with a multiplied cost gets there for less
     private final VisitedTiles visited = new VisitedTiles();
+    private final VisitedTiles settled = new VisitedTiles();
+
+    // Set by the search, and when selecting a route after it is done; readers use the snapshot, which the
+    // search builds from it at most once per publish interval, as the best path changes far more often than it is drawn
+    private volatile Node bestLastNode;
+    // Only used by the search thread
+    private long lastPublishNanos;
+    // Whether the best path ends at the target, rather than at the nearest tile found before the search stopped
+    private volatile boolean complete;
+    private final AtomicReference<PathSnapshot> snapshot = new AtomicReference<>(PathSnapshot.EMPTY);
+
+    /**
+     * The best route followed by its alternatives, each as the last node of its node chain, ordered by cost.
+     * Empty unless alternative routes were requested and the target was reached.
+     */
+    @Getter
+    private volatile List<Node> routes = Collections.emptyList();
+    @Getter
+    private volatile int selectedRoute;
+
+    /** How much work the search did; null until it finishes, and if the path came from a cache */
+    @Getter
+    private volatile SearchMetrics metrics;
 
-    @SuppressWarnings("unchecked") // Casting EMPTY_LIST is safe here
-    private List<WorldPoint> path = (List<WorldPoint>)Collections.EMPTY_LIST;
-    private boolean pathNeedsUpdate = false;
-    private List<String> actions = (List<String>)Collections.EMPTY_LIST;
-    private boolean actionsNeedUpdate = false;
-    private Node bestLastNode;
+    // Counters for the metrics, only touched by the search
+    // Null if the runtime has no flight recorder
+    private final SearchEvent event = Util.isFlightRecorderAvailable() ? new SearchEvent() : null;
+    private long startNanos;
+    private int expandedNodes;
+    private int transportsEnqueued;
+    private int peakBoundary;
+    private int peakPending;
+    private int regionsVisited;
+    private long firstPathNanos = -1;
+    private boolean cutoffHit;
+    // Only while recording traces
+    private SearchTrace trace;
 
     public Pathfinder(PathfinderConfig config, WorldPoint start, WorldPoint target) {
+        this(config, start, Collections.singleton(target));
+    }
+
+    /**
+     * Searches for the nearest of the given targets; the search ends at the first target that is reached.
+     */
+    public Pathfinder(PathfinderConfig config, WorldPoint start, Set<WorldPoint> targets) {
+        this(config, start, targets, -1, null, 0);
+    }
+
+    /**
+     * Expands from the start until the cost exceeds maxTicks and records the cost of every tile reached
+     * in {@link #getReachable()}, instead of searching for a target.
+     */
+    public Pathfinder(PathfinderConfig config, WorldPoint start, int maxTicks) {
+        this(config, start, Collections.emptySet(), maxTicks, null, 0);
+    }
+
+    /**
+     * Recalculates the path of a finished search from a new start. First searches from the new start back to
+     * the nearest tile of the previous path and reuses the rest of it; the whole path is only searched again
+     * if getting back takes more than slackTicks longer than walking straight to the previous path,
+     * if the previous path did not reach the target, if the settings have changed since the previous search,
+     * or if the collision of a region the previous path goes through has been patched since.
+     */
+    public Pathfinder(PathfinderConfig config, WorldPoint start, Pathfinder previous, int slackTicks) {
+        this(config, start, Collections.singleton(previous.getTarget()), -1, previous.complete &&
+            previous.fingerprint == config.getFingerprint() && isUnpatched(config.getMap(), previous.bestLastNode, previous.revision)
+            ? previous.bestLastNode : null, slackTicks);
+    }
+
+    // Whether no region the path goes through has been patched since the given revision
+    private static boolean isUnpatched(CollisionMap map, Node path, int revision) {
+        if (map.getRevision() == revision) {
+            return true;
+        }
+        for (Node node = path; node != null; node = node.previous) {
+            final int region = PathCache.regionId(node.packedPosition);
+            if (map.getRevision(region >> 8, region & 0xFF) > revision) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Pathfinder(PathfinderConfig config, WorldPoint start, Set<WorldPoint> targets, int maxTicks,
+                       Node previousPath, int spliceSlack) {
         this.config = config;
-        this.map = config.getMap();
+        this.settings = config.getSearchSettings();
+        this.costModel = settings.getCostModel();
         this.start = start;
-        this.target = target;
+        this.targets = targets;
         startPacked = WorldPointUtil.packWorldPoint(start);
-        targetPacked = WorldPointUtil.packWorldPoint(target);
-        targetInWilderness = PathfinderConfig.isInWilderness(target);
-        
+
+        WorldPoint nearestTarget = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        int allTargetZones = -1;
+        for (WorldPoint point : targets) {
+            final int distance = WorldPointUtil.distanceBetween(start, point);
+            if (distance < nearestDistance) {
+                nearestTarget = point;
+                nearestDistance = distance;
+            }
+            allTargetZones &= settings.getZoneMap().get(WorldPointUtil.packWorldPoint(point));
+        }
+        target = nearestTarget;
+        targetPacked = target == null ? -1 : WorldPointUtil.packWorldPoint(target);
+        targetZones = target != null ? allTargetZones : 0;
+
+        if (targets.size() > 1) {
+            targetTiles = new VisitedTiles();
+            for (WorldPoint point : targets) {
+                targetTiles.set(point);
+            }
+        } else {
+            targetTiles = null;
+        }
+
+        this.maxCost = maxTicks >= 0 ? costModel.fromTicks(maxTicks) : -1;
+        reachable = maxTicks >= 0 ? new CostGrid() : null;
+        this.previousPath = previousPath;
+        this.spliceSlack = spliceSlack;
+
+        fingerprint = config.getFingerprint();
+        revision = config.getMap().getRevision();
+        PathCache.Entry cached = reachable == null ? config.getPathCache().get(startPacked, targets, fingerprint) : null;
+        if (cached != null && cached.getGp() <= config.getGp()) {
+            if (event != null) {
+                event.begin();
+            }
+            useCached(cached);
+            return;
+        }
+
         new Thread(this).start();
     }
 
+    // The same search has completed before with the same settings; reuse its result instead of searching again
+    private void useCached(PathCache.Entry cached) {
+        target = cached.getTarget();
+        routes = cached.getRoutes();
+        bestLastNode = cached.getLastNode();
+        publishSnapshot();
+        complete = true;
+        if (event != null) {
+            event.cached = true;
+        }
+        commitEvent(true, false);
+        done.set(true);
+    }
+
     public boolean isDone() {
         return done.get();
     }
@@ -62,111 +245,451 @@ public class Pathfinder implements Runnable {
         cancelled.set(true);
     }
 
+    public void selectRoute(int index) {
+        List<Node> routes = this.routes; // For thread safety, read routes once
+        if (index < 0 || index >= routes.size()) {
+            return;
+        }
 
-    public List<WorldPoint> getPath() {
-        Node lastNode = bestLastNode; // For thread safety, read bestLastNode once
-        if (lastNode == null) {
-            return path;
+        selectedRoute = index;
+        bestLastNode = routes.get(index);
+        publishSnapshot();
+    }
+
+    /**
+     * The best path published so far.
+     */
+    public PathSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public PackedPath getPath() {
+        return getSnapshot().getPath();
+    }
+
+    public List<String> getActions() {
+        return getSnapshot().getActions();
+    }
+
+    private void publish(Node lastNode) {
+        bestLastNode = lastNode;
+        final long now = System.nanoTime();
+        if (snapshot.get() == PathSnapshot.EMPTY || now - lastPublishNanos >= PUBLISH_INTERVAL_NANOS) {
+            publishSnapshot();
+            lastPublishNanos = now;
         }
+    }
 
-        if (pathNeedsUpdate) {
-            path = lastNode.getPathPoints();
-            pathNeedsUpdate = false;
+    private void publishSnapshot() {
+        final PathSnapshot current = snapshot.get();
+        final Node lastNode = bestLastNode;
+        if (current.lastNode != lastNode) {
+            snapshot.set(new PathSnapshot(current.getVersion() + 1, lastNode));
         }
+    }
 
-        return path;
+    private boolean isTarget(int packedPosition) {
+        if (targetTiles == null) {
+            return packedPosition == targetPacked;
+        }
+        return targetTiles.get(packedPosition);
     }
 
-    public List<String> getActions() {
-        Node lastNode = bestLastNode; // For thread safety, read bestLastNode once
-        if (lastNode == null) {
-            return actions;
+    // Whether the neighbor has been visited already or has to be avoided, before a node is created for it
+    private boolean skipNeighbor(int packedPosition, int neighborPosition) {
+        return visited.get(neighborPosition) || settings.avoidZones(packedPosition, neighborPosition, targetZones);
+    }
+
+    // Walked tiles go to the end of the boundary, which stays in order of cost as long as every step costs the same,
+    // and transports and steps with a multiplied cost go to the pending queue. Walked tiles are visited when they are
+    // queued, but pending tiles only when they are polled, as a cheaper way onto them may be queued until then
+    private final NeighborVisitor enqueueNeighbor = new NeighborVisitor() {
+        @Override
+        public void walk(Node node, int packedPosition, int stepCost) {
+            if (skipNeighbor(node.packedPosition, packedPosition)) {
+                return;
+            }
+            if (stepCost == costModel.getStepCost()) {
+                visited.set(packedPosition);
+                boundary.addLast(new Node(packedPosition, node, stepCost));
+                peakBoundary = Math.max(peakBoundary, boundary.size());
+            } else {
+                pending.add(new Node(packedPosition, node, stepCost));
+                peakPending = Math.max(peakPending, pending.size());
+            }
         }
 
-        if (actionsNeedUpdate) {
-            List<Node> nodes = lastNode.getPathNodes();
-            actions = new ArrayList<>();
-            for (Node n : nodes) {
-                if (n instanceof TransportNode) {
-                    actions.add(((TransportNode)n).getTransport().getDescription());
-                }
+        @Override
+        public void transport(Node node, int packedPosition, Transport transport, int transportCost) {
+            if (!settled.get(packedPosition) && !settings.avoidZones(node.packedPosition, packedPosition, targetZones)) {
+                pending.add(new TransportNode(packedPosition, node, transport, transportCost));
+                transportsEnqueued++;
+                peakPending = Math.max(peakPending, pending.size());
             }
-            actionsNeedUpdate = false;
         }
+    };
+
+    /**
+     * Removes the cheapest node of the boundary and the pending queue, or returns null if both are empty. Nodes
+     * whose tile has been expanded already are dropped, as are pending nodes whose coins cannot be afforded.
+     */
+    private Node pollNext() {
+        while (true) {
+            Node node = boundary.peekFirst();
+            Node p = pending.peek();
+            if (p == null || (node != null && p.cost >= node.cost)) {
+                node = boundary.pollFirst();
+                if (node == null || settled.set(node.packedPosition)) {
+                    return node;
+                }
+                continue;
+            }
 
-        return actions;
+            pending.poll();
+            if (config.getGp() >= p.gp && settled.set(p.packedPosition)) {
+                visited.set(p.packedPosition);
+                return p;
+            }
+        }
     }
 
     private void addNeighbors(Node node) {
-        List<Node> nodes = map.getNeighbors(node, config);
-        for (int i = 0; i < nodes.size(); ++i) {
-            Node neighbor = nodes.get(i);
-            if (visited.get(neighbor.packedPosition) || (config.isAvoidWilderness() && config.avoidWilderness(node.packedPosition, neighbor.packedPosition, targetInWilderness))) {
+        map.visitNeighbors(node, config, settings, enqueueNeighbor);
+    }
+
+    private void expanded(Node node) {
+        expandedNodes++;
+        if (trace != null) {
+            trace.expanded(node);
+        }
+    }
+
+    private void tracePhase(int kind, int weight) {
+        if (trace != null) {
+            trace.phase(kind, weight);
+        }
+    }
+
+    private void clearSearch() {
+        regionsVisited = Math.max(regionsVisited, visited.getRegionCount());
+        boundary.clear();
+        visited.clear();
+        settled.clear();
+        pending.clear();
+    }
+
+    private void reachedTarget() {
+        if (firstPathNanos < 0) {
+            firstPathNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    private void commitEvent(boolean targetReached, boolean cancelled) {
+        if (event != null && event.shouldCommit()) {
+            event.start = start.toString();
+            event.target = target == null ? null : target.toString();
+            event.cost = getSnapshot().getCost();
+            event.expansions = expandedNodes;
+            event.targetReached = targetReached;
+            event.cutoff = cutoffHit;
+            event.cancelled = cancelled;
+            event.commit();
+        }
+    }
+
+    private void finish(boolean targetReached) {
+        // The last best path may not have been published yet
+        publishSnapshot();
+        commitEvent(targetReached, cancelled.get());
+        if (trace != null) {
+            trace.finish(bestLastNode, targetReached, cutoffHit, cancelled.get());
+            trace = null;
+        }
+        if (!cancelled.get()) {
+            metrics = new SearchMetrics(expandedNodes, transportsEnqueued, peakBoundary, peakPending, regionsVisited,
+                firstPathNanos, System.nanoTime() - startNanos, cutoffHit);
+            SearchListener listener = config.getSearchListener();
+            if (listener != null) {
+                listener.searchFinished(this, metrics);
+            }
+        }
+        done.set(!cancelled.get());
+    }
+
+    private static boolean isViaTile(int packedPosition) {
+        return WorldPointUtil.unpackWorldX(packedPosition) % VIA_NODE_SPACING == 0
+            && WorldPointUtil.unpackWorldY(packedPosition) % VIA_NODE_SPACING == 0;
+    }
+
+    /**
+     * Searches from the start back to the nearest tile of the previous path within the slack, and if it is found,
+     * continues along the rest of the previous path from there.
+     */
+    private boolean splice() {
+        // Walking backwards from the end means the last visit of a tile the path crosses more than once is kept
+        Map<Integer, Node> pathNodes = new HashMap<>();
+        VisitedTiles pathTiles = new VisitedTiles();
+        int distance = Integer.MAX_VALUE;
+        for (Node node = previousPath; node != null; node = node.previous) {
+            pathNodes.putIfAbsent(node.packedPosition, node);
+            pathTiles.set(node.packedPosition);
+            distance = Math.min(distance, WorldPointUtil.distanceBetween(startPacked, node.packedPosition));
+        }
+        if (distance > MAX_SPLICE_DISTANCE) {
+            return false;
+        }
+
+        final int maxSpliceCost = distance * costModel.getStepCost() + costModel.fromTicks(spliceSlack);
+        Node join = null;
+        tracePhase(SearchTrace.PHASE_SPLICE, 1);
+        boundary.addFirst(new Node(start, null));
+        while (!cancelled.get()) {
+            Node node = pollNext();
+            if (node == null) {
+                break;
+            }
+            if (node.cost > maxSpliceCost) {
+                break;
+            }
+            if (config.getGp() < node.gp) {
                 continue;
             }
-            if (visited.set(neighbor.packedPosition)) {
-                if (neighbor instanceof TransportNode) {
-                    pending.add(neighbor);
-                } else {
-                    boundary.addLast(neighbor);
+            if (pathTiles.get(node.packedPosition)) {
+                join = node;
+                break;
+            }
+
+            addNeighbors(node);
+            expanded(node);
+        }
+
+        clearSearch();
+        if (join == null) {
+            return false;
+        }
+
+        List<Node> rest = new ArrayList<>();
+        final Node joinedPathNode = pathNodes.get(join.packedPosition);
+        for (Node node = previousPath; node != joinedPathNode; node = node.previous) {
+            rest.add(node);
+        }
+
+        Node node = join;
+        for (int i = rest.size() - 1; i >= 0; --i) {
+            Node next = rest.get(i);
+            if (next instanceof TransportNode) {
+                Transport transport = ((TransportNode) next).getTransport();
+                node = new TransportNode(transport.getDestination(), node, transport, costModel.getTransportCost(transport));
+            } else {
+                node = new Node(next.packedPosition, node, settings.getStepCost(next.packedPosition));
+            }
+        }
+
+        publish(node);
+        reachedTarget();
+        return true;
+    }
+
+    /**
+     * Weighted A*: expands nodes in order of cost plus weight times the estimated cost to the target, which reaches
+     * the target far sooner than the exact search at the price of a path that may be up to about weight times longer.
+     * Returns the last node of the path, or null if the target was not reached before the deadline.
+     */
+    private Node searchWeighted(int weight, long deadlineMillis) {
+        final long heuristicCost = (long) weight * costModel.getStepCost();
+        Queue<Node> open = new PriorityQueue<>(4096, Comparator.comparingLong(
+            node -> node.cost + heuristicCost * WorldPointUtil.distanceBetween(node.packedPosition, targetPacked)));
+        NeighborVisitor enqueueOpen = new NeighborVisitor() {
+            @Override
+            public void walk(Node node, int packedPosition, int stepCost) {
+                if (config.getGp() >= node.gp && !skipNeighbor(node.packedPosition, packedPosition) && visited.set(packedPosition)) {
+                    open.add(new Node(packedPosition, node, stepCost));
+                }
+            }
+
+            @Override
+            public void transport(Node node, int packedPosition, Transport transport, int transportCost) {
+                if (settled.get(packedPosition) || settings.avoidZones(node.packedPosition, packedPosition, targetZones)) {
+                    return;
+                }
+                // The coins a transport costs are only known once its node has been created; like in the exact
+                // search, its tile is only visited once it is polled
+                Node neighbor = new TransportNode(packedPosition, node, transport, transportCost);
+                if (config.getGp() >= neighbor.gp) {
+                    open.add(neighbor);
                 }
             }
+        };
+        open.add(new Node(start, null));
+        visited.set(startPacked);
+        tracePhase(SearchTrace.PHASE_QUICK, weight);
+
+        Node found = null;
+        int expansions = 0;
+        while (!open.isEmpty() && !cancelled.get()) {
+            Node node = open.poll();
+            if (!settled.set(node.packedPosition)) {
+                continue;
+            }
+            visited.set(node.packedPosition);
+            if (isTarget(node.packedPosition)) {
+                found = node;
+                break;
+            }
+            expanded(node);
+            // Checking the time is comparatively slow, so only do it every so often
+            if ((++expansions & 1023) == 0 && System.currentTimeMillis() > deadlineMillis) {
+                break;
+            }
+
+            map.visitNeighbors(node, config, settings, enqueueOpen);
+        }
+
+        regionsVisited = Math.max(regionsVisited, visited.getRegionCount());
+        visited.clear();
+        settled.clear();
+        if (found != null && targetTiles != null) {
+            target = WorldPointUtil.unpackWorldPoint(found.packedPosition);
         }
+        return found;
     }
 
     @Override
     public void run() {
-        bestLastNode = new Node(start, null);
-        boundary.addFirst(bestLastNode);
+        map = config.getMap();
+        revision = map.getRevision();
+        if (event != null) {
+            event.begin();
+        }
+        // Stored routes are decoded here rather than with the memory cache in the constructor, which runs on the client thread
+        RouteStore routeStore = config.getRouteStore();
+        PathCache.Entry stored = reachable == null && routeStore != null
+            ? routeStore.get(startPacked, targets, fingerprint, config, settings) : null;
+        if (stored != null) {
+            config.getPathCache().put(startPacked, targets, fingerprint, stored);
+            if (stored.getGp() <= config.getGp()) {
+                useCached(stored);
+                return;
+            }
+        }
+        startNanos = System.nanoTime();
+        File traceDirectory = config.getTraceDirectory();
+        if (traceDirectory != null) {
+            trace = SearchTrace.create(traceDirectory, startPacked, targetPacked);
+        }
+        if (previousPath != null && splice()) {
+            // Not cached, as a spliced path is not always the one a full search would find
+            complete = true;
+            finish(true);
+            return;
+        }
+
+        // A complete path from the quick searches is shown until the exact search reaches the target
+        Node anytimePath = null;
+        if (reachable == null && config.isAnytimeSearch()) {
+            final long deadline = System.currentTimeMillis() + ANYTIME_BUDGET_MILLIS;
+            for (int weight : ANYTIME_WEIGHTS) {
+                Node found = searchWeighted(weight, deadline);
+                if (found == null) {
+                    break;
+                }
+                if (anytimePath == null || found.cost < anytimePath.cost) {
+                    anytimePath = found;
+                    publish(found);
+                    reachedTarget();
+                }
+            }
+        }
+
+        Node root = new Node(start, null);
+        if (anytimePath == null) {
+            publish(root);
+        }
+        boundary.addFirst(root);
+        tracePhase(reachable == null ? SearchTrace.PHASE_EXACT : SearchTrace.PHASE_REACHABLE, 1);
+
+        final int alternativeRoutes = reachable == null ? config.getAlternativeRoutes() : 0;
+        final Map<Integer, Node> viaNodes = alternativeRoutes > 0 ? new HashMap<>() : null;
+        boolean targetReached = false;
+        int expansions = 0;
 
         int bestDistance = Integer.MAX_VALUE;
         long bestHeuristic = Integer.MAX_VALUE;
         long cutoffDurationMillis = config.getCalculationCutoff().toMillis();
         long cutoffTimeMillis = System.currentTimeMillis() + cutoffDurationMillis;
 
-        while (!cancelled.get() && (!boundary.isEmpty() || !pending.isEmpty())) {
-            Node node = boundary.peekFirst();
-            Node p = pending.peek();
-
-            if (p != null && (node == null || p.cost < node.cost)) {
-                boundary.addFirst(p);
-                pending.poll();
+        while (!cancelled.get()) {
+            Node node = pollNext();
+            if (node == null) {
+                break;
             }
-
-            node = boundary.removeFirst();
             if (config.getGp() < node.gp) {
                 continue; // TODO: generalize heuristic check?
             }
 
-            if (node.packedPosition == targetPacked || !config.isNear(start)) {
-                bestLastNode = node;
-                pathNeedsUpdate = true;
-                actionsNeedUpdate = true;
+            if (reachable != null) {
+                // Nodes are settled in order of cost, so every node after this one is out of budget too
+                if (node.cost > maxCost) {
+                    break;
+                }
+                reachable.set(node.packedPosition, node.cost);
+                addNeighbors(node);
+                expanded(node);
+                continue;
+            }
+
+            if (viaNodes != null && (node instanceof TransportNode || isViaTile(node.packedPosition))) {
+                viaNodes.put(node.packedPosition, node);
+            }
+
+            if (isTarget(node.packedPosition) || !config.isNear(start)) {
+                targetReached = isTarget(node.packedPosition);
+                if (targetTiles != null && targetReached) {
+                    target = WorldPointUtil.unpackWorldPoint(node.packedPosition);
+                }
+                if (targetReached || anytimePath == null) {
+                    publish(node);
+                }
+                if (targetReached) {
+                    reachedTarget();
+                }
                 break;
             }
 
             int distance = WorldPointUtil.distanceBetween(node.packedPosition, targetPacked);
             long heuristic = distance + WorldPointUtil.distanceBetween(node.packedPosition, targetPacked, 2);
             if (heuristic < bestHeuristic || (heuristic <= bestHeuristic && distance < bestDistance)) {
-                bestLastNode = node;
-                pathNeedsUpdate = true;
-                actionsNeedUpdate = true;
+                if (anytimePath == null) {
+                    publish(node);
+                }
                 bestDistance = distance;
                 bestHeuristic = heuristic;
                 cutoffTimeMillis = System.currentTimeMillis() + cutoffDurationMillis;
             }
 
             if (System.currentTimeMillis() > cutoffTimeMillis) {
+                cutoffHit = true;
                 break;
             }
 
             addNeighbors(node);
+            expansions++;
+            expanded(node);
         }
 
-        done.set(!cancelled.get());
+        clearSearch();
 
-        boundary.clear();
-        visited.clear();
-        pending.clear();
+        if (targetReached && viaNodes != null && !cancelled.get()) {
+            routes = new AlternativeRoutes(config, settings, map, targetZones, viaNodes)
+                .find(bestLastNode, alternativeRoutes, expansions, System.currentTimeMillis() + cutoffDurationMillis);
+        }
+
+        if (targetReached && !cancelled.get()) {
+            config.cacheRoute(startPacked, targets, fingerprint, revision, new PathCache.Entry(target, bestLastNode, routes));
+        }
+
+        // The path of the quick searches is kept if the exact search stops before the target
+        complete = targetReached || anytimePath != null;
+        finish(targetReached);
     }
 }
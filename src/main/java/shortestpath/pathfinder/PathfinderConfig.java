@@ -1,11 +1,15 @@
 package shortestpath.pathfinder;
 
+import java.io.File;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import lombok.Getter;
+import lombok.Setter;
 import net.runelite.api.*;
 import net.runelite.api.coords.WorldArea;
 import net.runelite.api.coords.WorldPoint;
@@ -15,6 +19,7 @@ import shortestpath.ShortestPathConfig;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.Spellbook;
 import shortestpath.Transport;
+import shortestpath.Util;
 import shortestpath.WorldPointUtil;
 
 public class PathfinderConfig {
@@ -24,12 +29,29 @@ public class PathfinderConfig {
     private final SplitFlagMap mapData;
     private final ThreadLocal<CollisionMap> map;
     private final Map<WorldPoint, List<Transport>> allTransports;
+    // The usable transports are built into new collections on every refresh and swapped in, as searches
+    // that are still running keep reading them
     @Getter
-    private Map<WorldPoint, List<Transport>> transports;
+    private volatile Map<WorldPoint, List<Transport>> transports;
 
     // Copy of transports with packed positions for the hotpath; lists are not copied and are the same reference in both maps
     @Getter
-    private Map<Integer, List<Transport>> transportsPacked;
+    private volatile Map<Integer, List<Transport>> transportsPacked;
+
+    // The same transports keyed by packed destination, for searching backwards from a target
+    // Transports without an origin are left out as they can only be used at the start
+    @Getter
+    private volatile Map<Integer, List<Transport>> transportsPackedByDestination;
+
+    // The origins and destinations of the same transports, checked before the maps so most tiles are not boxed into a key
+    @Getter
+    private volatile VisitedTiles transportOrigins = new VisitedTiles();
+    @Getter
+    private volatile VisitedTiles transportDestinations = new VisitedTiles();
+
+    // The origins of the same transports by region, for the overlays
+    @Getter
+    private TransportIndex transportIndex = new TransportIndex();
 
     private final Client client;
     private final ShortestPathConfig config;
@@ -37,8 +59,35 @@ public class PathfinderConfig {
 
     @Getter
     private Duration calculationCutoff;
-    @Getter
     private boolean avoidWilderness;
+    private String avoidAreas;
+    private String costAreas;
+    // The zones, cost areas and cost model searches use; replaced as a whole on refresh, and the zones and
+    // cost areas are only rebuilt when their settings change
+    @Getter
+    private volatile SearchSettings searchSettings;
+    @Getter
+    private int alternativeRoutes;
+    @Getter
+    private boolean anytimeSearch;
+    // Changes whenever anything that can change the outcome of a search changes; keys the path cache.
+    // 64 bits, as the route store keeps routes under it across restarts and never sees the settings themselves
+    @Getter
+    private long fingerprint;
+    @Getter
+    private final PathCache pathCache = new PathCache();
+    // Optional; keeps long routes across restarts
+    @Getter
+    @Setter
+    private RouteStore routeStore;
+    // Optional; told about the work every finished search did
+    @Getter
+    @Setter
+    private SearchListener searchListener;
+    // Where search traces are written when they are recorded
+    @Setter
+    private File traceDirectory;
+    private boolean recordSearchTraces;
     private boolean useAgilityShortcuts;
     private boolean useGrappleShortcuts;
     private boolean useBoats;
@@ -60,6 +109,9 @@ public class PathfinderConfig {
     private ItemGroup items;
     @Getter
     private int gp = Integer.MAX_VALUE; // Assume player is loaded unless otherwise specified
+    // What one or two of the usable transports cost in coins, in order; which of these the coins cover is what
+    // decides which routes can be afforded, so the fingerprint only changes when the coins cross one of them
+    private int[] coinCosts = new int[0];
 
     private Map<Quest, QuestState> questStates = new HashMap<>();
 
@@ -70,20 +122,98 @@ public class PathfinderConfig {
         this.allTransports = transports;
         this.transports = new HashMap<>();
         this.transportsPacked = new HashMap<>();
+        this.transportsPackedByDestination = new HashMap<>();
         this.client = client;
         this.config = config;
         this.plugin = plugin;
         refresh();
     }
 
+    /**
+     * The map of the calling thread, updated to the latest collision data. It keeps that version until
+     * the thread gets its map again, so a search should get it once and use it throughout.
+     */
     public CollisionMap getMap() {
-        return map.get();
+        CollisionMap threadMap = map.get();
+        threadMap.update();
+        return threadMap;
+    }
+
+    /**
+     * Patches the collision data and drops the cached routes that go through the regions that changed.
+     *
+     * @return the ids of the regions that changed
+     */
+    public Set<Integer> applyCollisionPatch(CollisionPatch patch) {
+        synchronized (pathCache) {
+            Set<Integer> changed = mapData.apply(patch);
+            if (!changed.isEmpty()) {
+                pathCache.invalidate(changed);
+                RouteStore store = routeStore;
+                if (store != null) {
+                    store.invalidate(changed);
+                }
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Caches the route of a search made on the given revision of the collision data, unless the data has been
+     * patched since. The routes of patched regions have been dropped already, so caching it then could put
+     * back a route through a tile that has since been blocked.
+     */
+    public void cacheRoute(int startPacked, Set<WorldPoint> targets, long fingerprint, int revision, PathCache.Entry entry) {
+        // Synchronized with patching, so a patch cannot come in between checking the revision and caching the route
+        synchronized (pathCache) {
+            if (mapData.getRevision() != revision) {
+                return;
+            }
+            pathCache.put(startPacked, targets, fingerprint, entry);
+            RouteStore store = routeStore;
+            if (store != null) {
+                store.put(startPacked, targets, fingerprint, entry);
+            }
+        }
+    }
+
+    /**
+     * The directory to write a trace of every search to, or null if traces are not recorded.
+     */
+    public File getTraceDirectory() {
+        return recordSearchTraces ? traceDirectory : null;
+    }
+
+    /**
+     * Adds a transport to the loaded ones and refreshes, so the search and the transport index of the
+     * overlays both pick it up. Has to run on the client thread.
+     */
+    public void addTransport(Transport transport) {
+        allTransports.computeIfAbsent(transport.getOrigin(), k -> new ArrayList<>()).add(transport);
+        refresh();
     }
 
     public void refresh() {
         calculationCutoff = Duration.ofMillis(config.calculationCutoff() * Constants.GAME_TICK_LENGTH);
         recalculateDistance = config.recalculateDistance();
         avoidWilderness = config.avoidWilderness();
+        final SearchSettings previous = searchSettings;
+        ZoneMap zoneMap = previous == null ? null : previous.getZoneMap();
+        if (previous == null || !config.avoidAreas().equals(avoidAreas)) {
+            avoidAreas = config.avoidAreas();
+            zoneMap = buildZoneMap(avoidAreas);
+        }
+        CostMultipliers costMultipliers = previous == null ? null : previous.getCostMultipliers();
+        if (previous == null || !config.costAreas().equals(costAreas)) {
+            costAreas = config.costAreas();
+            costMultipliers = buildCostMultipliers(costAreas);
+        }
+        final int avoidedZones = (avoidWilderness ? ZoneMap.WILDERNESS : 0) | ZoneMap.AVOID;
+        searchSettings = new SearchSettings(zoneMap, avoidedZones, costMultipliers,
+            new TickCostModel(config.costModel(), config.gpPerTick()));
+        alternativeRoutes = config.alternativeRoutes();
+        anytimeSearch = config.anytimeSearch();
+        recordSearchTraces = config.recordSearchTraces();
         useAgilityShortcuts = config.useAgilityShortcuts();
         useGrappleShortcuts = config.useGrappleShortcuts();
         useBoats = config.useBoats();
@@ -107,12 +237,88 @@ public class PathfinderConfig {
 
             refreshTransportData();
         }
+
+        int affordableCoinCosts = 0;
+        while (affordableCoinCosts < coinCosts.length && coinCosts[affordableCoinCosts] <= gp) {
+            affordableCoinCosts++;
+        }
+
+        long newFingerprint = transportFingerprint();
+        newFingerprint = combine(newFingerprint, avoidWilderness ? 1 : 0);
+        newFingerprint = combine(newFingerprint, avoidAreas);
+        newFingerprint = combine(newFingerprint, costAreas);
+        newFingerprint = combine(newFingerprint, affordableCoinCosts);
+        newFingerprint = combine(newFingerprint, alternativeRoutes);
+        newFingerprint = combine(newFingerprint, config.costModel().ordinal());
+        newFingerprint = combine(newFingerprint, config.gpPerTick());
+        if (newFingerprint != fingerprint) {
+            // Cached routes can never be hit again, so there is no point keeping them around
+            pathCache.clear();
+            fingerprint = newFingerprint;
+        }
+    }
+
+    // Only depends on what the transports are, not on the order they are stored in
+    private long transportFingerprint() {
+        long hash = 0;
+        for (List<Transport> usableTransports : transportsPacked.values()) {
+            for (Transport transport : usableTransports) {
+                long transportHash = combine(0, transport.getOrigin() == null ? -1 : WorldPointUtil.packWorldPoint(transport.getOrigin()));
+                transportHash = combine(transportHash, WorldPointUtil.packWorldPoint(transport.getDestination()));
+                transportHash = combine(transportHash, transport.getWait());
+                transportHash = combine(transportHash, transport.getItemCost(ItemID.COINS_995));
+                hash += transportHash;
+            }
+        }
+        return hash;
+    }
+
+    private static long combine(long hash, String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            hash = combine(hash, value.charAt(i));
+        }
+        return combine(hash, value.length());
+    }
+
+    // Mixes the value into every bit of the hash, so that settings that differ slightly hash far apart
+    private static long combine(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    // The distinct costs in coins of one or two of the transports, in order
+    private static int[] coinCosts(Map<Integer, List<Transport>> transportsPacked) {
+        Set<Integer> costs = new TreeSet<>();
+        for (List<Transport> usableTransports : transportsPacked.values()) {
+            for (Transport transport : usableTransports) {
+                final int cost = transport.getItemCost(ItemID.COINS_995);
+                if (cost > 0) {
+                    costs.add(cost);
+                }
+            }
+        }
+
+        Set<Integer> sums = new TreeSet<>(costs);
+        for (int a : costs) {
+            for (int b : costs) {
+                sums.add(a + b);
+            }
+        }
+        return sums.stream().mapToInt(Integer::intValue).toArray();
     }
 
     private void refreshTransportData() {
         if (!Thread.currentThread().equals(client.getClientThread())) {
             return; // Has to run on the client thread; data will be refreshed when path finding commences
         }
+        // Null if the runtime has no flight recorder
+        TransportRefreshEvent event = Util.isFlightRecorderAvailable() ? new TransportRefreshEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        int transportCount = 0;
+        int usableTransportCount = 0;
+        int origins = 0;
         useFairyRings &= !QuestState.NOT_STARTED.equals(Quest.FAIRYTALE_II__CURE_A_QUEEN.getState(client));
         useSpiritTree &= QuestState.FINISHED.equals(Quest.TREE_GNOME_VILLAGE.getState(client));
         useGnomeGliders &= QuestState.FINISHED.equals(Quest.THE_GRAND_TREE.getState(client));
@@ -135,10 +341,15 @@ public class PathfinderConfig {
             gp = 0;
         }
 
-        transports.clear();
-        transportsPacked.clear();
+        Map<WorldPoint, List<Transport>> transports = new HashMap<>();
+        Map<Integer, List<Transport>> transportsPacked = new HashMap<>();
+        Map<Integer, List<Transport>> transportsPackedByDestination = new HashMap<>();
+        VisitedTiles transportOrigins = new VisitedTiles();
+        VisitedTiles transportDestinations = new VisitedTiles();
+        TransportIndex index = new TransportIndex();
         for (Map.Entry<WorldPoint, List<Transport>> entry : allTransports.entrySet()) {
             List<Transport> usableTransports = new ArrayList<>(entry.getValue().size());
+            transportCount += entry.getValue().size();
             for (Transport transport : entry.getValue()) {
                 if (transport.isQuestLocked()) {
                     try {
@@ -153,15 +364,37 @@ public class PathfinderConfig {
             }
 
             if (!usableTransports.isEmpty()) {
+                usableTransportCount += usableTransports.size();
+                origins++;
                 WorldPoint point = entry.getKey();
                 transports.put(point, usableTransports);
                 if (point == null) {
                     transportsPacked.put(null, usableTransports);
                 } else {
                     transportsPacked.put(WorldPointUtil.packWorldPoint(point), usableTransports);
+                    transportOrigins.set(point);
+                    index.add(point);
+                    for (Transport transport : usableTransports) {
+                        transportDestinations.set(transport.getDestination());
+                        transportsPackedByDestination.computeIfAbsent(
+                            WorldPointUtil.packWorldPoint(transport.getDestination()), k -> new ArrayList<>()).add(transport);
+                    }
                 }
             }
         }
+        this.transportsPacked = transportsPacked;
+        coinCosts = coinCosts(transportsPacked);
+        this.transportsPackedByDestination = transportsPackedByDestination;
+        this.transportOrigins = transportOrigins;
+        this.transportDestinations = transportDestinations;
+        this.transports = transports;
+        transportIndex = index;
+        if (event != null) {
+            event.transports = transportCount;
+            event.usableTransports = usableTransportCount;
+            event.origins = origins;
+            event.commit();
+        }
     }
 
     public static boolean isInWilderness(WorldPoint p) {
@@ -172,12 +405,53 @@ public class PathfinderConfig {
         return WorldPointUtil.distanceToArea(packedPoint, WILDERNESS_ABOVE_GROUND) == 0 || WorldPointUtil.distanceToArea(packedPoint, WILDERNESS_UNDERGROUND) == 0;
     }
 
-    public boolean avoidWilderness(WorldPoint position, WorldPoint neighbor, boolean targetInWilderness) {
-        return avoidWilderness && !isInWilderness(position) && isInWilderness(neighbor) && !targetInWilderness;
+    // The wilderness and the areas to avoid, one per line as the corners x1 y1 x2 y2 and an optional plane
+    static ZoneMap buildZoneMap(String avoidAreas) {
+        ZoneMap zones = new ZoneMap();
+        for (WorldArea area : new WorldArea[]{WILDERNESS_ABOVE_GROUND, WILDERNESS_UNDERGROUND}) {
+            zones.add(ZoneMap.WILDERNESS, area.getX(), area.getY(),
+                area.getX() + area.getWidth() - 1, area.getY() + area.getHeight() - 1, area.getPlane());
+        }
+
+        for (String line : avoidAreas.split("\n")) {
+            int[] area = parseNumbers(line);
+            if (area != null && (area.length == 4 || area.length == 5)) {
+                zones.add(ZoneMap.AVOID, Math.min(area[0], area[2]), Math.min(area[1], area[3]),
+                    Math.max(area[0], area[2]), Math.max(area[1], area[3]), area.length == 5 ? area[4] : 0);
+            }
+        }
+        return zones;
+    }
+
+    // The cost areas, one per line as the corners x1 y1 x2 y2, the multiplier and an optional plane, or null if there are none
+    static CostMultipliers buildCostMultipliers(String costAreas) {
+        CostMultipliers multipliers = null;
+        for (String line : costAreas.split("\n")) {
+            int[] area = parseNumbers(line);
+            if (area != null && (area.length == 5 || area.length == 6) && area[4] > 1) {
+                if (multipliers == null) {
+                    multipliers = new CostMultipliers();
+                }
+                multipliers.add(area[4], Math.min(area[0], area[2]), Math.min(area[1], area[3]),
+                    Math.max(area[0], area[2]), Math.max(area[1], area[3]), area.length == 6 ? area[5] : 0);
+            }
+        }
+        return multipliers;
     }
 
-    public boolean avoidWilderness(int packedPosition, int packedNeightborPosition, boolean targetInWilderness) {
-        return avoidWilderness && !isInWilderness(packedPosition) && isInWilderness(packedNeightborPosition) && !targetInWilderness;
+    // The numbers of a line of an area setting separated by spaces or commas, or null if it is not all numbers,
+    // so that comments and mistyped lines are skipped
+    private static int[] parseNumbers(String line) {
+        String[] fields = line.trim().split("[\\s,]+");
+        int[] numbers = new int[fields.length];
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                numbers[i] = Integer.parseInt(fields[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return numbers;
     }
 
     public boolean isNear(WorldPoint location) {
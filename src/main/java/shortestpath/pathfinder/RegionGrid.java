@@ -0,0 +1,94 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import shortestpath.WorldPointUtil;
+
+import static net.runelite.api.Constants.MAX_Z;
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * A byte for every tile of the collision map. A region and plane whose tiles all have the same value share
+ * one value, and only those with different values keep a value per tile, so a lookup is an array index or two
+ * however many areas the grid was built from.
+ */
+class RegionGrid {
+    private final SplitFlagMap.RegionExtent regionExtents;
+    private final int widthInclusive;
+
+    // By region and plane
+    private final byte[] regionValues;
+    private final byte[][] tileValues;
+
+    RegionGrid() {
+        regionExtents = SplitFlagMap.getRegionExtents();
+        widthInclusive = regionExtents.getWidth() + 1;
+        final int heightInclusive = regionExtents.getHeight() + 1;
+
+        regionValues = new byte[widthInclusive * heightInclusive * MAX_Z];
+        tileValues = new byte[regionValues.length][];
+    }
+
+    int get(int packedPoint) {
+        return get(WorldPointUtil.unpackWorldX(packedPoint), WorldPointUtil.unpackWorldY(packedPoint),
+            WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    // Tiles outside the collision map are 0
+    int get(int x, int y, int plane) {
+        final int index = getIndex(x / REGION_SIZE, y / REGION_SIZE, plane);
+        if (index < 0) {
+            return 0;
+        }
+
+        final byte[] tiles = tileValues[index];
+        if (tiles == null) {
+            return regionValues[index] & 0xFF;
+        }
+        return tiles[(y % REGION_SIZE) * REGION_SIZE + x % REGION_SIZE] & 0xFF;
+    }
+
+    /**
+     * Replaces the value of the tiles from the south-west corner up to and including the north-east corner
+     * with the result of the operator. Tiles outside the collision map are left out, as the search never reaches them.
+     */
+    void update(int minX, int minY, int maxX, int maxY, int plane, IntUnaryOperator operator) {
+        for (int regionX = minX / REGION_SIZE; regionX <= maxX / REGION_SIZE; regionX++) {
+            for (int regionY = minY / REGION_SIZE; regionY <= maxY / REGION_SIZE; regionY++) {
+                final int index = getIndex(regionX, regionY, plane);
+                if (index < 0) {
+                    continue;
+                }
+
+                final int fromX = Math.max(minX - regionX * REGION_SIZE, 0);
+                final int fromY = Math.max(minY - regionY * REGION_SIZE, 0);
+                final int toX = Math.min(maxX - regionX * REGION_SIZE, REGION_SIZE - 1);
+                final int toY = Math.min(maxY - regionY * REGION_SIZE, REGION_SIZE - 1);
+                if (tileValues[index] == null) {
+                    if (fromX == 0 && fromY == 0 && toX == REGION_SIZE - 1 && toY == REGION_SIZE - 1) {
+                        regionValues[index] = (byte) operator.applyAsInt(regionValues[index] & 0xFF);
+                        continue;
+                    }
+                    tileValues[index] = new byte[REGION_SIZE * REGION_SIZE];
+                    Arrays.fill(tileValues[index], regionValues[index]);
+                }
+
+                final byte[] tiles = tileValues[index];
+                for (int y = fromY; y <= toY; y++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        tiles[y * REGION_SIZE + x] = (byte) operator.applyAsInt(tiles[y * REGION_SIZE + x] & 0xFF);
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns -1 for regions outside the collision map
+    private int getIndex(int regionX, int regionY, int plane) {
+        if (regionX < regionExtents.minX || regionX > regionExtents.maxX ||
+            regionY < regionExtents.minY || regionY > regionExtents.maxY || plane < 0 || plane >= MAX_Z) {
+            return -1;
+        }
+        return ((regionX - regionExtents.minX) + (regionY - regionExtents.minY) * widthInclusive) * MAX_Z + plane;
+    }
+}
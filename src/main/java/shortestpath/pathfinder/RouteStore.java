@@ -0,0 +1,319 @@
+package shortestpath.pathfinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.ShortestPathPlugin;
+import shortestpath.Transport;
+import shortestpath.Util;
+import shortestpath.WorldPointUtil;
+
+/**
+ * Keeps long routes on disk so they survive restarts, behind the in-memory {@link PathCache}.
+ * <p>
+ * The file starts with a header of a magic number, the format version, a hash of the collision map and
+ * transport resources and the number of entries; a file written for other resources is started over. It is followed by entries of
+ * the config fingerprint, the start, the number of targets, the targets, the number of regions the route goes
+ * through, the regions, the target that was reached, the number of nodes and then for every node its packed
+ * position and whether it was reached by a transport.
+ * <p>
+ * Opening the file memory-maps it and reads only the entry headers; a route is decoded when it is first used.
+ * New routes are written to the end of the mapping, which is grown a chunk at a time, and once the file holds
+ * {@link #MAX_ENTRIES} routes it is started over on the next open.
+ */
+public class RouteStore {
+    private static final int MAGIC = 0x53505243;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 20;
+    private static final int COUNT_OFFSET = 16;
+    private static final int MAX_ENTRIES = 256;
+    // The file is mapped in multiples of this, so the mapping only has to grow every so many routes
+    private static final int MAP_CHUNK = 256 * 1024;
+    // Shorter routes are quick enough to search for again
+    private static final int MIN_STORED_STEPS = 100;
+    private static final String[] VERSIONED_RESOURCES = {
+        "/collision-map.zip", "/collision-map.patch", "/transports.txt", "/boats.txt", "/fairy_rings.txt", "/teleports.txt",
+        "/items.txt", "/spells.txt", "/spirit_trees.txt", "/gnome_glider.txt"
+    };
+
+    private final File file;
+
+    // Offset of each entry's node count, by key
+    private final Map<PathCache.Key, Integer> offsets = new HashMap<>();
+    // The keys of the entries whose route goes through each region, so invalidating does not decode the routes
+    private final Map<Integer, List<PathCache.Key>> keysByRegion = new HashMap<>();
+    private MappedByteBuffer mapped;
+    private RandomAccessFile output;
+    // Where the next entry is written; anything after it is left over from an interrupted write
+    private long end;
+    // Entries in the file, including those no longer indexed because they were invalidated
+    private int count;
+
+    public RouteStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the file and indexes its entries, starting the file over if it is missing, full, corrupt
+     * or was written for other resources. The store is left disabled if the file cannot be used.
+     * The first open reads every versioned resource to hash it, so it should not be called on the client thread.
+     */
+    public synchronized void open() {
+        try {
+            file.getParentFile().mkdirs();
+            output = new RandomAccessFile(file, "rw");
+            // The file is checked before it is mapped, as a mapped file cannot be truncated on every platform
+            count = readHeader();
+            if (count < 0 || count >= MAX_ENTRIES) {
+                count = 0;
+                output.setLength(0);
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(ResourceHash.VALUE);
+                output.writeInt(0);
+            }
+            // Mapping pads the file to a whole chunk, so entries are checked against its length from before
+            final long length = output.length();
+            map(length);
+            end = index(count, length);
+        } catch (IOException e) {
+            close(); // Routes are still cached in memory, just not across restarts
+        }
+    }
+
+    public synchronized void close() {
+        offsets.clear();
+        keysByRegion.clear();
+        mapped = null;
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+            output = null;
+        }
+    }
+
+    /**
+     * Decodes the stored route for the search, or returns null if there is none or its transports are no longer usable.
+     */
+    public synchronized PathCache.Entry get(int startPacked, Set<WorldPoint> targets, long fingerprint, PathfinderConfig config,
+                                         SearchSettings settings) {
+        Integer offset = offsets.get(new PathCache.Key(startPacked, targets, fingerprint));
+        if (offset == null || mapped == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(offset - 4);
+        final int reachedTarget = buffer.getInt();
+        final int nodeCount = buffer.getInt();
+        final CostModel costModel = settings.getCostModel();
+
+        Node node = null;
+        for (int i = 0; i < nodeCount; ++i) {
+            final int position = buffer.getInt();
+            final boolean isTransport = buffer.get() != 0;
+            if (node == null) {
+                node = new Node(position, null);
+            } else if (isTransport) {
+                Transport transport = findTransport(config, node, position);
+                if (transport == null) {
+                    return null;
+                }
+                node = new TransportNode(transport.getDestination(), node, transport, costModel.getTransportCost(transport));
+            } else {
+                node = new Node(position, node, settings.getStepCost(position));
+            }
+        }
+
+        return new PathCache.Entry(WorldPointUtil.unpackWorldPoint(reachedTarget), node, Collections.emptyList());
+    }
+
+    /**
+     * Appends a route unless it is short, already stored or the file is full.
+     */
+    public synchronized void put(int startPacked, Set<WorldPoint> targets, long fingerprint, PathCache.Entry entry) {
+        PathCache.Key key = new PathCache.Key(startPacked, targets, fingerprint);
+        Node lastNode = entry.getLastNode();
+        if (output == null || lastNode.steps < MIN_STORED_STEPS || !entry.getRoutes().isEmpty() ||
+            count >= MAX_ENTRIES || offsets.containsKey(key)) {
+            return;
+        }
+
+        List<Node> nodes = lastNode.getPathNodes();
+        Set<Integer> regions = new HashSet<>();
+        for (Node node : nodes) {
+            regions.add(PathCache.regionId(node.packedPosition));
+        }
+        final int size = 8 + 4 * (5 + targets.size() + regions.size()) + 5 * nodes.size();
+
+        try {
+            if (end + size > mapped.capacity()) {
+                map(end + size);
+            }
+        } catch (IOException e) {
+            close();
+            return;
+        }
+
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position((int) end);
+        buffer.putLong(fingerprint);
+        buffer.putInt(startPacked);
+        buffer.putInt(targets.size());
+        for (WorldPoint target : targets) {
+            buffer.putInt(WorldPointUtil.packWorldPoint(target));
+        }
+        buffer.putInt(regions.size());
+        for (int region : regions) {
+            buffer.putInt(region);
+        }
+        buffer.putInt(WorldPointUtil.packWorldPoint(entry.getTarget()));
+        final int countOffset = buffer.position();
+        buffer.putInt(nodes.size());
+        for (Node node : nodes) {
+            buffer.putInt(node.packedPosition);
+            buffer.put((byte) (node instanceof TransportNode ? 1 : 0));
+        }
+
+        add(key, countOffset, regions);
+        end += size;
+        count++;
+        mapped.putInt(COUNT_OFFSET, count);
+    }
+
+    /**
+     * Stops using the routes that go through any of the regions, such as after the collision data of the
+     * regions has been patched. They are only left out of the index, so they are back the next time the
+     * store is opened, when the patches they were invalidated by are gone as well.
+     */
+    public synchronized void invalidate(Set<Integer> regions) {
+        for (int region : regions) {
+            List<PathCache.Key> keys = keysByRegion.remove(region);
+            if (keys != null) {
+                offsets.keySet().removeAll(keys);
+            }
+        }
+    }
+
+    private void add(PathCache.Key key, int countOffset, Iterable<Integer> regions) {
+        offsets.put(key, countOffset);
+        for (int region : regions) {
+            keysByRegion.computeIfAbsent(region, k -> new ArrayList<>()).add(key);
+        }
+    }
+
+    // Returns the number of entries, or -1 if the file has to be started over
+    private int readHeader() throws IOException {
+        if (output.length() < HEADER_SIZE) {
+            return -1;
+        }
+
+        output.seek(0);
+        if (output.readInt() != MAGIC || output.readInt() != FORMAT_VERSION || output.readLong() != ResourceHash.VALUE) {
+            return -1;
+        }
+        return output.readInt();
+    }
+
+    // Returns the offset after the last entry that could be read, and counts the entries that could.
+    // Entries that end past the length of the file were cut off when it was truncated
+    private long index(int count, long length) {
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(HEADER_SIZE);
+        int nextEntry = HEADER_SIZE;
+        this.count = 0;
+
+        try {
+            for (int entry = 0; entry < count; ++entry) {
+                final long fingerprint = buffer.getLong();
+                final int startPacked = buffer.getInt();
+                final int targetCount = buffer.getInt();
+                Set<WorldPoint> targets = new HashSet<>(targetCount);
+                for (int i = 0; i < targetCount; ++i) {
+                    targets.add(WorldPointUtil.unpackWorldPoint(buffer.getInt()));
+                }
+                final int regionCount = buffer.getInt();
+                List<Integer> regions = new ArrayList<>();
+                for (int i = 0; i < regionCount; ++i) {
+                    regions.add(buffer.getInt());
+                }
+                buffer.getInt(); // Reached target
+                final int countOffset = buffer.position();
+                final int nodeCount = buffer.getInt();
+                buffer.position(buffer.position() + 5 * nodeCount);
+                if (buffer.position() > length) {
+                    break;
+                }
+                add(new PathCache.Key(startPacked, targets, fingerprint), countOffset, regions);
+                nextEntry = buffer.position();
+                this.count = entry + 1;
+            }
+        } catch (RuntimeException ignored) {
+            // Truncated or corrupt entry; it and anything after it are overwritten by the next put
+        }
+
+        return nextEntry;
+    }
+
+    // Maps at least the given number of bytes of the file, rounded up to a whole chunk, growing the file to match.
+    // What is past the last entry is not read, so the space a chunk adds to the file is left for the next entries
+    private void map(long size) throws IOException {
+        final long chunks = (Math.max(size, HEADER_SIZE) + MAP_CHUNK - 1) / MAP_CHUNK;
+        mapped = output.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, chunks * MAP_CHUNK);
+    }
+
+    private static Transport findTransport(PathfinderConfig config, Node previous, int destination) {
+        List<Transport> transports = config.getTransportsPacked().get(previous.isRootNode() ? null : previous.packedPosition);
+        Transport found = findTransport(transports, destination);
+        if (found == null && previous.isRootNode()) {
+            found = findTransport(config.getTransportsPacked().get(previous.packedPosition), destination);
+        }
+        return found;
+    }
+
+    private static Transport findTransport(List<Transport> transports, int destination) {
+        if (transports == null) {
+            return null;
+        }
+        for (Transport transport : transports) {
+            if (WorldPointUtil.packWorldPoint(transport.getDestination()) == destination) {
+                return transport;
+            }
+        }
+        return null;
+    }
+
+    // Hashed when the first store is opened, and only once, as the resources cannot change while the plugin runs
+    private static class ResourceHash {
+        static final long VALUE = hashResources();
+    }
+
+    private static long hashResources() {
+        CRC32 crc = new CRC32();
+        for (String resource : VERSIONED_RESOURCES) {
+            try (InputStream in = ShortestPathPlugin.class.getResourceAsStream(resource)) {
+                if (in != null) {
+                    crc.update(Util.readAllBytes(in));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return crc.getValue();
+    }
+}
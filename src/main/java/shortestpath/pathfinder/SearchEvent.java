@@ -0,0 +1,38 @@
+package shortestpath.pathfinder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("shortestpath.Search")
+@Label("Search")
+@Category("Shortest Path")
+@Description("A search from when its thread starts until it finishes, or a search answered from a cache")
+class SearchEvent extends Event {
+    @Label("Start")
+    String start;
+
+    @Label("Target")
+    String target;
+
+    @Label("Cost")
+    @Description("In the units of the search's cost model")
+    int cost;
+
+    @Label("Expansions")
+    int expansions;
+
+    @Label("Target Reached")
+    boolean targetReached;
+
+    @Label("Cutoff")
+    boolean cutoff;
+
+    @Label("Cached")
+    boolean cached;
+
+    @Label("Cancelled")
+    boolean cancelled;
+}
@@ -0,0 +1,8 @@
+package shortestpath.pathfinder;
+
+/**
+ * Told about every search that runs to completion, on the thread that ran the search.
+ */
+public interface SearchListener {
+    void searchFinished(Pathfinder pathfinder, SearchMetrics metrics);
+}
@@ -0,0 +1,50 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+
+/**
+ * How much work a search did, counted with primitive counters while it ran and collected once it finished.
+ */
+public class SearchMetrics {
+    /** Nodes expanded by every phase of the search, including the quick searches and splicing */
+    @Getter
+    private final int expansions;
+
+    @Getter
+    private final int transportsEnqueued;
+
+    /** The largest size the queue of walked tiles reached */
+    @Getter
+    private final int peakBoundary;
+
+    /** The largest size the queue of transport nodes reached */
+    @Getter
+    private final int peakPending;
+
+    /** The most regions any phase of the search visited */
+    @Getter
+    private final int regionsVisited;
+
+    /** Nanoseconds from the start of the search until a path to the target was first published, or -1 if there was none */
+    @Getter
+    private final long firstPathNanos;
+
+    @Getter
+    private final long totalNanos;
+
+    /** Whether the search gave up because it stopped getting closer to the target within the calculation cutoff */
+    @Getter
+    private final boolean cutoff;
+
+    SearchMetrics(int expansions, int transportsEnqueued, int peakBoundary, int peakPending, int regionsVisited,
+                  long firstPathNanos, long totalNanos, boolean cutoff) {
+        this.expansions = expansions;
+        this.transportsEnqueued = transportsEnqueued;
+        this.peakBoundary = peakBoundary;
+        this.peakPending = peakPending;
+        this.regionsVisited = regionsVisited;
+        this.firstPathNanos = firstPathNanos;
+        this.totalNanos = totalNanos;
+        this.cutoff = cutoff;
+    }
+}
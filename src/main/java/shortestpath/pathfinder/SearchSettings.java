@@ -0,0 +1,45 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+
+/**
+ * The settings that decide what a search may enter and what each step of it costs. A new instance is built
+ * whenever they change and never modified afterwards, so a search captures one when it starts and keeps
+ * using it while the settings are refreshed on the client thread.
+ */
+public final class SearchSettings {
+    // Which zones every tile is in
+    @Getter
+    private final ZoneMap zoneMap;
+    // The zones a search does not enter unless its target is in them
+    private final int avoidedZones;
+    // Null if there are no cost areas, so searches without them do not look tiles up
+    @Getter
+    private final CostMultipliers costMultipliers;
+    @Getter
+    private final CostModel costModel;
+
+    public SearchSettings(ZoneMap zoneMap, int avoidedZones, CostMultipliers costMultipliers, CostModel costModel) {
+        this.zoneMap = zoneMap;
+        this.avoidedZones = avoidedZones;
+        this.costMultipliers = costMultipliers;
+        this.costModel = costModel;
+    }
+
+    /**
+     * The cost of a walking step onto the tile, multiplied if the tile is in a cost area.
+     */
+    public int getStepCost(int packedPosition) {
+        final int stepCost = costModel.getStepCost();
+        return costMultipliers == null ? stepCost : stepCost * costMultipliers.get(packedPosition);
+    }
+
+    /**
+     * Whether stepping from the position to the neighbor enters an avoided zone that the targets are not in.
+     * Once in a zone the search may move around it freely, so a start in a zone can still get out.
+     */
+    public boolean avoidZones(int packedPosition, int packedNeighborPosition, int targetZones) {
+        final int entered = zoneMap.get(packedNeighborPosition) & avoidedZones & ~targetZones;
+        return entered != 0 && (entered & ~zoneMap.get(packedPosition)) != 0;
+    }
+}
@@ -0,0 +1,249 @@
+package shortestpath.pathfinder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import shortestpath.Transport;
+
+/**
+ * Records the order a search expanded its nodes in, with their costs, and the path it chose, so a slow search
+ * can be replayed offline to see where the work went.
+ * <p>
+ * A trace is a gzipped file of a header of a magic number, the format version, the start, the target and the
+ * time the search started, followed by records that each start with a tag: a phase with its kind and heuristic
+ * weight, an expanded node as variable length differences to the position and cost of the previous expanded node,
+ * the chosen path as the number of nodes and for every node its position, cost and the description of the
+ * transport that reached it, and the end of the search with whether the target was reached, was cut off or
+ * the search was cancelled.
+ */
+public class SearchTrace {
+    public static final String EXTENSION = ".trace";
+
+    public static final int PHASE_SPLICE = 0;
+    public static final int PHASE_QUICK = 1;
+    public static final int PHASE_EXACT = 2;
+    public static final int PHASE_REACHABLE = 3;
+
+    private static final int MAGIC = 0x53505454;
+    private static final int FORMAT_VERSION = 1;
+    // Older traces are deleted when a new one is started
+    private static final int MAX_TRACES = 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int TAG_END = 0;
+    private static final int TAG_PHASE = 1;
+    private static final int TAG_EXPANDED = 2;
+    private static final int TAG_PATH = 3;
+
+    private DataOutputStream output;
+    private int previousPosition;
+    private int previousCost;
+
+    private SearchTrace(OutputStream output, int startPacked, int targetPacked) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(output, BUFFER_SIZE), BUFFER_SIZE));
+        this.output.writeInt(MAGIC);
+        this.output.writeInt(FORMAT_VERSION);
+        this.output.writeInt(startPacked);
+        this.output.writeInt(targetPacked);
+        this.output.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Starts a trace in a new file of the directory, or returns null if the file cannot be written.
+     */
+    static SearchTrace create(File directory, int startPacked, int targetPacked) {
+        try {
+            directory.mkdirs();
+            deleteOldTraces(directory);
+            String name = "search-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + EXTENSION;
+            return new SearchTrace(new FileOutputStream(new File(directory, name)), startPacked, targetPacked);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void deleteOldTraces(File directory) {
+        File[] traces = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (traces == null || traces.length < MAX_TRACES) {
+            return;
+        }
+        Arrays.sort(traces, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i <= traces.length - MAX_TRACES; ++i) {
+            traces[i].delete();
+        }
+    }
+
+    void phase(int kind, int weight) {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.writeByte(TAG_PHASE);
+            output.writeByte(kind);
+            output.writeByte(weight);
+            previousPosition = 0;
+            previousCost = 0;
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    void expanded(Node node) {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.writeByte(TAG_EXPANDED);
+            writeVarInt(node.packedPosition - previousPosition);
+            writeVarInt(node.cost - previousCost);
+            previousPosition = node.packedPosition;
+            previousCost = node.cost;
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Writes the chosen path and how the search ended, and closes the file.
+     */
+    void finish(Node lastNode, boolean targetReached, boolean cutoff, boolean cancelled) {
+        if (output == null) {
+            return;
+        }
+        try {
+            List<Node> nodes = lastNode == null ? Collections.<Node>emptyList() : lastNode.getPathNodes();
+            output.writeByte(TAG_PATH);
+            output.writeInt(nodes.size());
+            for (Node node : nodes) {
+                output.writeInt(node.packedPosition);
+                output.writeInt(node.cost);
+                output.writeUTF(node instanceof TransportNode ? describe(((TransportNode) node).getTransport()) : "");
+            }
+            output.writeByte(TAG_END);
+            output.writeBoolean(targetReached);
+            output.writeBoolean(cutoff);
+            output.writeBoolean(cancelled);
+        } catch (IOException ignored) {
+        }
+        close();
+    }
+
+    private static String describe(Transport transport) {
+        return transport.getDescription() == null || transport.getDescription().isEmpty() ? "Transport" : transport.getDescription();
+    }
+
+    private void close() {
+        try {
+            output.close();
+        } catch (IOException ignored) {
+        }
+        output = null;
+    }
+
+    // Zigzag encoded so that small negative differences take as few bytes as small positive ones
+    private void writeVarInt(int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            output.writeByte((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        output.writeByte(zigzag);
+    }
+
+    /**
+     * Receives the records of a trace in the order they were written.
+     */
+    public interface Visitor {
+        void start(int startPacked, int targetPacked, long timeMillis);
+
+        void phase(int kind, int weight);
+
+        void expanded(int packedPosition, int cost);
+
+        /** Called for every node of the chosen path; the transport is empty for a walked step */
+        void pathNode(int packedPosition, int cost, String transport);
+
+        void end(boolean targetReached, boolean cutoff, boolean cancelled);
+    }
+
+    public static void read(File file, Visitor visitor) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            read(input, visitor);
+        }
+    }
+
+    /**
+     * Reads a trace, stopping early without an error if the search was still being written or the file was cut short.
+     */
+    public static void read(InputStream stream, Visitor visitor) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream, BUFFER_SIZE), BUFFER_SIZE));
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a search trace of version " + FORMAT_VERSION);
+        }
+        visitor.start(input.readInt(), input.readInt(), input.readLong());
+
+        int position = 0;
+        int cost = 0;
+        try {
+            while (true) {
+                final int tag = input.read();
+                if (tag < 0) {
+                    return;
+                }
+                switch (tag) {
+                    case TAG_PHASE:
+                        visitor.phase(input.readUnsignedByte(), input.readUnsignedByte());
+                        position = 0;
+                        cost = 0;
+                        break;
+                    case TAG_EXPANDED:
+                        position += readVarInt(input);
+                        cost += readVarInt(input);
+                        visitor.expanded(position, cost);
+                        break;
+                    case TAG_PATH:
+                        final int nodeCount = input.readInt();
+                        for (int i = 0; i < nodeCount; ++i) {
+                            visitor.pathNode(input.readInt(), input.readInt(), input.readUTF());
+                        }
+                        break;
+                    case TAG_END:
+                        visitor.end(input.readBoolean(), input.readBoolean(), input.readBoolean());
+                        return;
+                    default:
+                        throw new IOException("Unknown record " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            // The trace of a search that was interrupted ends without an end record
+        }
+    }
+
+    private static int readVarInt(DataInputStream input) throws IOException {
+        int zigzag = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.readUnsignedByte();
+            zigzag |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
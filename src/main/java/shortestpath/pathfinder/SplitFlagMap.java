@@ -5,7 +5,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -22,7 +24,9 @@ public class SplitFlagMap {
     private static RegionExtent regionExtents;
 
     // Size is automatically chosen based on the max extents of the collision data
-    private final FlagMap[] regionMaps;
+    private final FlagMap[] baseMaps;
+    // The regions with patches applied and their revisions; replaced as a whole when patched
+    private volatile Version latest;
     private final int widthInclusive;
     private final int flagCount;
 
@@ -31,7 +35,7 @@ public class SplitFlagMap {
 
         widthInclusive = regionExtents.getWidth() + 1;
         final int heightInclusive = regionExtents.getHeight() + 1;
-        regionMaps = new FlagMap[widthInclusive * heightInclusive];
+        baseMaps = new FlagMap[widthInclusive * heightInclusive];
 
         for (Map.Entry<Integer, byte[]> entry : compressedRegions.entrySet()) {
             final int pos = entry.getKey();
@@ -46,17 +50,118 @@ public class SplitFlagMap {
                 throw new UncheckedIOException(e);
             }
 
-            regionMaps[getIndex(x, y)] = map;
+            baseMaps[getIndex(x, y)] = map;
         }
+        latest = new Version(this, baseMaps, new int[baseMaps.length], 0);
+    }
+
+    /**
+     * The collision data with every patch applied so far. It is not changed by later patches, so a search that
+     * looks everything up in the same version sees the same data from start to finish.
+     */
+    public Version getLatest() {
+        return latest;
     }
 
     public boolean get(int x, int y, int z, int flag) {
+        return latest.get(x, y, z, flag);
+    }
+
+    /**
+     * Changes whenever a patch changes the flags of a tile.
+     */
+    public int getRevision() {
+        return latest.revision;
+    }
+
+    /**
+     * The flag as it is in the collision data the map was loaded from, before any patches.
+     */
+    public boolean getBase(int x, int y, int z, int flag) {
+        return get(baseMaps, x, y, z, flag);
+    }
+
+    private boolean get(FlagMap[] maps, int x, int y, int z, int flag) {
         final int index = getIndex(x / REGION_SIZE, y / REGION_SIZE);
-        if (index < 0 || index >= regionMaps.length || regionMaps[index] == null) {
+        if (index < 0 || index >= maps.length || maps[index] == null) {
             return false;
         }
 
-        return regionMaps[index].get(x, y, z, flag);
+        return maps[index].get(x, y, z, flag);
+    }
+
+    /**
+     * Sets the flags of the tiles of the patch. Every region with a changed tile is copied and patched, and
+     * the patched regions are published as a new version, so searches running at the same time keep the
+     * version they started with. Tiles outside the extents of the map are left out.
+     *
+     * @return the ids of the regions in which a tile changed
+     */
+    public synchronized Set<Integer> apply(CollisionPatch patch) {
+        final Version current = latest;
+        FlagMap[] maps = current.maps.clone();
+        Set<Integer> changed = patch(maps, patch);
+        if (!changed.isEmpty()) {
+            final int revision = current.revision + 1;
+            int[] regionRevisions = current.regionRevisions.clone();
+            for (int region : changed) {
+                regionRevisions[getIndex(region >> 8, region & 0xFF)] = revision;
+            }
+            latest = new Version(this, maps, regionRevisions, revision);
+        }
+        return changed;
+    }
+
+    /**
+     * The revision of the map the region last changed in, or 0 if it is as it was loaded.
+     */
+    public int getRevision(int regionX, int regionY) {
+        return latest.getRevision(regionX, regionY);
+    }
+
+    // Patches the regions of the array, replacing every region that changes with a patched copy
+    private Set<Integer> patch(FlagMap[] maps, CollisionPatch patch) {
+        Set<Integer> changed = new HashSet<>();
+        for (int region : patch.getRegions()) {
+            final int regionX = region >> 8;
+            final int regionY = region & 0xFF;
+            if (regionX < regionExtents.getMinX() || regionX > regionExtents.getMaxX() ||
+                regionY < regionExtents.getMinY() || regionY > regionExtents.getMaxY()) {
+                continue;
+            }
+
+            final int index = getIndex(regionX, regionY);
+            final FlagMap current = maps[index];
+            final int[] tiles = patch.getTiles(region);
+            FlagMap copy = null;
+            for (int i = 0; i < patch.getTileCount(region); ++i) {
+                final int x = regionX * REGION_SIZE + CollisionPatch.unpackX(tiles[i]);
+                final int y = regionY * REGION_SIZE + CollisionPatch.unpackY(tiles[i]);
+                final int z = CollisionPatch.unpackPlane(tiles[i]);
+                final int flags = CollisionPatch.unpackFlags(tiles[i]);
+                if (current != null && (x < current.minX || x > current.maxX || y < current.minY || y > current.maxY)) {
+                    continue;
+                }
+                for (int flag = 0; flag < flagCount; ++flag) {
+                    final boolean value = (flags & (1 << flag)) != 0;
+                    final FlagMap latest = copy != null ? copy : current;
+                    if ((latest != null && latest.get(x, y, z, flag)) == value) {
+                        continue;
+                    }
+                    if (copy == null) {
+                        copy = current != null ? new FlagMap(current) : new FlagMap(regionX * REGION_SIZE, regionY * REGION_SIZE,
+                            regionX * REGION_SIZE + REGION_SIZE - 1, regionY * REGION_SIZE + REGION_SIZE - 1, flagCount);
+                    }
+                    copy.set(x, y, z, flag, value);
+                }
+            }
+
+            if (copy != null) {
+                maps[index] = copy;
+                changed.add(region);
+            }
+        }
+        return changed;
     }
 
     private int getIndex(int regionX, int regionY) {
@@ -75,8 +180,19 @@ public class SplitFlagMap {
         return (x & 0xFFFF) | ((y & 0xFFFF) << 16);
     }
 
+    /**
+     * Loads the bundled collision map, with the bundled patch applied on top of it if there is one. The patch
+     * holds the changes made to the collision data since the map was made, so only the regions that changed
+     * are copied and patched rather than the whole map being made again.
+     */
     public static SplitFlagMap fromResources() {
+        // Null if the runtime has no flight recorder
+        CollisionMapLoadEvent event = Util.isFlightRecorderAvailable() ? new CollisionMapLoadEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
         Map<Integer, byte[]> compressedRegions = new HashMap<>();
+        CollisionPatch patch = null;
         try (ZipInputStream in = new ZipInputStream(ShortestPathPlugin.class.getResourceAsStream("/collision-map.zip"))) {
             int minX = Integer.MAX_VALUE;
             int minY = Integer.MAX_VALUE;
@@ -99,12 +215,64 @@ public class SplitFlagMap {
                 );
             }
 
+            try (InputStream patchIn = ShortestPathPlugin.class.getResourceAsStream("/collision-map.patch")) {
+                if (patchIn != null) {
+                    patch = CollisionPatch.read(patchIn);
+                    // The patch can add regions the map did not have
+                    for (int region : patch.getRegions()) {
+                        minX = Math.min(minX, region >> 8);
+                        minY = Math.min(minY, region & 0xFF);
+                        maxX = Math.max(maxX, region >> 8);
+                        maxY = Math.max(maxY, region & 0xFF);
+                    }
+                }
+            }
+
             regionExtents = new RegionExtent(minX, minY, maxX, maxY);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
 
-        return new SplitFlagMap(compressedRegions, 2);
+        SplitFlagMap map = new SplitFlagMap(compressedRegions, 2);
+        // Patched into the base, as the patch is part of the collision data the map is loaded from
+        final int patchedRegions = patch != null ? map.patch(map.baseMaps, patch).size() : 0;
+        if (event != null) {
+            event.patchedRegions = patchedRegions;
+            event.regions = compressedRegions.size();
+            event.commit();
+        }
+        return map;
+    }
+
+    /**
+     * The collision data as it was after some number of patches. Never changed once it is published.
+     */
+    public static class Version {
+        private final SplitFlagMap map;
+        private final FlagMap[] maps;
+        private final int[] regionRevisions;
+        @Getter
+        private final int revision;
+
+        private Version(SplitFlagMap map, FlagMap[] maps, int[] regionRevisions, int revision) {
+            this.map = map;
+            this.maps = maps;
+            this.regionRevisions = regionRevisions;
+            this.revision = revision;
+        }
+
+        public boolean get(int x, int y, int z, int flag) {
+            return map.get(maps, x, y, z, flag);
+        }
+
+        /**
+         * The revision the region last changed in, or 0 if it is as it was loaded.
+         */
+        public int getRevision(int regionX, int regionY) {
+            final int index = map.getIndex(regionX, regionY);
+            return regionX < regionExtents.getMinX() || regionX > regionExtents.getMaxX() || index < 0 ||
+                index >= regionRevisions.length ? 0 : regionRevisions[index];
+        }
     }
 
     @RequiredArgsConstructor
@@ -0,0 +1,66 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.ItemID;
+import shortestpath.CostModelType;
+import shortestpath.Transport;
+
+/**
+ * Costs a path by its travel time. Costs are in half ticks so that running, which covers two tiles
+ * per tick, still has a whole number cost per step; the steps model keeps a unit of one tick.
+ */
+public final class TickCostModel implements CostModel {
+    // One step per tile and the transport wait, but at least one step, without any gp weighting
+    public static final TickCostModel STEPS = new TickCostModel(CostModelType.STEPS, 0);
+
+    private final int stepCost;
+    private final int unitsPerTick;
+    // Climbing stairs, opening doors and the like take at least this long even without a listed wait
+    private final int minTransportTicks;
+    // How many coins one tick of travel time is worth; 0 ignores gp cost
+    private final int gpPerTick;
+
+    public TickCostModel(CostModelType type, int gpPerTick) {
+        switch (type) {
+            case WALKING:
+                stepCost = 2;
+                unitsPerTick = 2;
+                minTransportTicks = 1;
+                break;
+            case RUNNING:
+                stepCost = 1;
+                unitsPerTick = 2;
+                minTransportTicks = 1;
+                break;
+            default:
+                stepCost = 1;
+                unitsPerTick = 1;
+                minTransportTicks = 1;
+                break;
+        }
+        this.gpPerTick = gpPerTick;
+    }
+
+    @Override
+    public int getStepCost() {
+        return stepCost;
+    }
+
+    @Override
+    public int getTransportCost(Transport transport) {
+        int cost = Math.max(transport.getWait(), minTransportTicks) * unitsPerTick;
+        if (gpPerTick > 0) {
+            cost += transport.getItemCost(ItemID.COINS_995) * unitsPerTick / gpPerTick;
+        }
+        return cost;
+    }
+
+    @Override
+    public int toTicks(int cost) {
+        return (cost + unitsPerTick - 1) / unitsPerTick;
+    }
+
+    @Override
+    public int fromTicks(int ticks) {
+        return ticks * unitsPerTick;
+    }
+}
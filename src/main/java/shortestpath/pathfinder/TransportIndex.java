@@ -0,0 +1,27 @@
+package shortestpath.pathfinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * The origins of the usable transports, bucketed by region, so overlays only go through the transports of
+ * the regions they show. Transports without an origin are left out as there is nowhere to draw them.
+ */
+public class TransportIndex {
+    private final Map<Integer, List<WorldPoint>> originsByRegion = new HashMap<>();
+
+    void add(WorldPoint origin) {
+        originsByRegion.computeIfAbsent(origin.getRegionID(), k -> new ArrayList<>()).add(origin);
+    }
+
+    /**
+     * The transport origins of the region on any plane.
+     */
+    public List<WorldPoint> getOrigins(int regionX, int regionY) {
+        return originsByRegion.getOrDefault((regionX << 8) | regionY, Collections.emptyList());
+    }
+}
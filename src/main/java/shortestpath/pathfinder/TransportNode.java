@@ -9,8 +9,14 @@ public class TransportNode extends Node implements Comparable<TransportNode> {
     @Getter
     final private Transport transport;
 
-    public TransportNode(WorldPoint position, Node previous, Transport transport) {
-        super(position, previous, transport.getWait());
+    public TransportNode(WorldPoint position, Node previous, Transport transport, int transportCost) {
+        super(position, previous, transportCost);
+        this.transport = transport;
+        this.gp += transport.getItemCost(ItemID.COINS_995);
+    }
+
+    public TransportNode(int packedPosition, Node previous, Transport transport, int transportCost) {
+        super(packedPosition, previous, transportCost);
         this.transport = transport;
         this.gp += transport.getItemCost(ItemID.COINS_995);
     }
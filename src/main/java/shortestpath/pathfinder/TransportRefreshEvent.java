@@ -0,0 +1,23 @@
+package shortestpath.pathfinder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("shortestpath.TransportRefresh")
+@Label("Transport Refresh")
+@Category("Shortest Path")
+@Description("Working out which transports the player can use")
+class TransportRefreshEvent extends Event {
+    @Label("Transports")
+    int transports;
+
+    @Label("Usable Transports")
+    int usableTransports;
+
+    @Label("Origins")
+    @Description("Tiles with at least one usable transport")
+    int origins;
+}
@@ -11,6 +11,8 @@ public class VisitedTiles {
     private final int widthInclusive;
 
     private final VisitedRegion[] visitedRegions;
+    // Regions with a tile set since the last clear
+    private int regionCount;
 
     public VisitedTiles() {
         regionExtents = SplitFlagMap.getRegionExtents();
@@ -66,6 +68,7 @@ public class VisitedTiles {
         if (region == null) {
             region = new VisitedRegion();
             visitedRegions[regionIndex] = region;
+            regionCount++;
         }
 
         return region.set(x % REGION_SIZE, y % REGION_SIZE, plane);
@@ -77,6 +80,26 @@ public class VisitedTiles {
                 visitedRegions[i] = null;
             }
         }
+        regionCount = 0;
+    }
+
+    /**
+     * Whether the tile is in a region these tiles can hold. Tiles outside can never be set and
+     * {@link #get} reports them as visited, so a caller asking whether a tile is set has to check this first.
+     */
+    public boolean isInBounds(int x, int y) {
+        if (x < 0 || y < 0) {
+            return false;
+        }
+        final int regionX = x / REGION_SIZE;
+        final int regionY = y / REGION_SIZE;
+        return regionX >= regionExtents.minX && regionX <= regionExtents.maxX
+            && regionY >= regionExtents.minY && regionY <= regionExtents.maxY;
+    }
+
+    /** The number of regions with a visited tile */
+    public int getRegionCount() {
+        return regionCount;
     }
 
     private int getRegionIndex(int regionX, int regionY) {
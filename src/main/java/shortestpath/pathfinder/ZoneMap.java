@@ -0,0 +1,28 @@
+package shortestpath.pathfinder;
+
+/**
+ * The zones every tile is in, as a bit per zone, so checking whether a tile is in a zone is a single lookup
+ * however many areas the zones are made of.
+ */
+public class ZoneMap {
+    public static final int WILDERNESS = 1;
+    // Areas the user has asked to avoid
+    public static final int AVOID = 2;
+
+    private final RegionGrid zones = new RegionGrid();
+
+    public int get(int packedPoint) {
+        return zones.get(packedPoint);
+    }
+
+    public int get(int x, int y, int plane) {
+        return zones.get(x, y, plane);
+    }
+
+    /**
+     * Adds the tiles from the south-west corner up to and including the north-east corner to the zone.
+     */
+    public void add(int zone, int minX, int minY, int maxX, int maxY, int plane) {
+        zones.update(minX, minY, maxX, maxY, plane, mask -> mask | zone);
+    }
+}
@@ -0,0 +1,114 @@
+package pathfinder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import shortestpath.Util;
+import shortestpath.pathfinder.CollisionPatch;
+import shortestpath.pathfinder.FlagMap;
+
+import static net.runelite.api.Constants.REGION_SIZE;
+
+/**
+ * Compares two collision maps tile by tile and writes the tiles whose flags changed as a collision patch,
+ * so a game update that changes a few regions ships as a small patch on top of the bundled map instead of a
+ * whole new map. Put the patch in the resources as collision-map.patch and it is applied when the map is loaded.
+ * <p>
+ * Usage: CollisionMapDiff old collision-map.zip new collision-map.zip [patch file]. Prints the regions that
+ * changed and how many of their tiles did; the patch is only written if a patch file is given. The patch is
+ * against the old map, so diff against the bundled map rather than against the map of an earlier patch.
+ */
+public class CollisionMapDiff {
+    private static final int FLAG_COUNT = 2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: CollisionMapDiff <old collision-map.zip> <new collision-map.zip> [patch file]");
+            System.exit(1);
+        }
+
+        Map<Integer, FlagMap> oldRegions = readRegions(new File(args[0]));
+        Map<Integer, FlagMap> newRegions = readRegions(new File(args[1]));
+        Set<Integer> regions = new TreeSet<>(oldRegions.keySet());
+        regions.addAll(newRegions.keySet());
+
+        CollisionPatch patch = new CollisionPatch();
+        for (int region : regions) {
+            final int changed = diff(region, oldRegions.get(region), newRegions.get(region), patch);
+            if (changed > 0) {
+                System.out.println("  " + region + " (" + ((region >> 8) * REGION_SIZE) + ", " + ((region & 0xFF) * REGION_SIZE) +
+                    "): " + changed + " tiles" + (!oldRegions.containsKey(region) ? ", new" : !newRegions.containsKey(region) ? ", removed" : ""));
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        patch.write(bytes);
+        System.out.println(patch.getRegions().size() + " of " + regions.size() + " regions changed, " + patch.getTileCount() +
+            " tiles, " + bytes.size() + " bytes patched");
+
+        if (args.length > 2) {
+            try (OutputStream out = new FileOutputStream(args[2])) {
+                bytes.writeTo(out);
+            }
+            System.out.println("Wrote " + args[2]);
+        }
+    }
+
+    // Adds the tiles of the region whose flags changed to the patch, and returns how many there were
+    private static int diff(int region, FlagMap oldMap, FlagMap newMap, CollisionPatch patch) {
+        final int baseX = (region >> 8) * REGION_SIZE;
+        final int baseY = (region & 0xFF) * REGION_SIZE;
+        int changed = 0;
+        for (int plane = 0; plane < FlagMap.PLANE_COUNT; plane++) {
+            for (int x = baseX; x < baseX + REGION_SIZE; x++) {
+                for (int y = baseY; y < baseY + REGION_SIZE; y++) {
+                    final int oldFlags = flags(oldMap, x, y, plane);
+                    final int newFlags = flags(newMap, x, y, plane);
+                    if (oldFlags != newFlags) {
+                        patch.set(x, y, plane, newFlags);
+                        changed++;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static int flags(FlagMap map, int x, int y, int plane) {
+        int flags = 0;
+        for (int flag = 0; map != null && flag < FLAG_COUNT; flag++) {
+            if (map.get(x, y, plane, flag)) {
+                flags |= 1 << flag;
+            }
+        }
+        return flags;
+    }
+
+    // The regions of the map by region id; entries are named by the region x and y and are gzipped
+    private static Map<Integer, FlagMap> readRegions(File file) throws IOException {
+        Map<Integer, FlagMap> regions = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(file))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                String[] n = entry.getName().split("_");
+                final int region = Integer.parseInt(n[0]) << 8 | Integer.parseInt(n[1]);
+                try (InputStream regionIn = new GZIPInputStream(new ByteArrayInputStream(Util.readAllBytes(in)))) {
+                    regions.put(region, new FlagMap(Util.readAllBytes(regionIn), FLAG_COUNT));
+                }
+            }
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,161 @@
+package pathfinder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.Transport;
+import shortestpath.pathfinder.PackedPath;
+import shortestpath.pathfinder.Pathfinder;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Searches every route of the route corpus with the {@link StubProfile} and compares the result with the
+ * baseline recorded for it. Exits with status 1 if a route is no longer found, costs more than its baseline
+ * or expands more than {@link #EXPANSION_THRESHOLD} times its baseline number of nodes, or if the whole corpus
+ * takes more than {@link #TIME_THRESHOLD} times its baseline time.
+ * <p>
+ * Usage: RouteRegression [--record] [corpus file]. With --record the baselines are overwritten with the
+ * results of this run instead, which is how the corpus is updated after an intended change.
+ * Times depend on the machine, so record the baseline on the machine that checks against it.
+ */
+public class RouteRegression {
+    private static final String DEFAULT_CORPUS = "src/test/resources/routes.txt";
+    private static final double EXPANSION_THRESHOLD = 1.1;
+    private static final double TIME_THRESHOLD = 1.5;
+    // Searched before timing so the JIT has compiled the search
+    private static final int WARMUP_ROUTES = 20;
+
+    public static void main(String[] args) throws IOException {
+        boolean record = false;
+        Path corpus = Paths.get(DEFAULT_CORPUS);
+        for (String arg : args) {
+            if ("--record".equals(arg)) {
+                record = true;
+            } else {
+                corpus = Paths.get(arg);
+            }
+        }
+
+        SplitFlagMap map = SplitFlagMap.fromResources();
+        Map<WorldPoint, List<Transport>> transports = Transport.loadAllFromResources();
+        PathfinderConfig withTeleports = StubProfile.pathfinderConfig(map, transports, true);
+        PathfinderConfig withoutTeleports = StubProfile.pathfinderConfig(map, transports, false);
+
+        List<String> lines = Files.readAllLines(corpus, StandardCharsets.UTF_8);
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).startsWith("#") && !lines.get(i).trim().isEmpty()) {
+                routes.add(new Route(i, lines.get(i)));
+            }
+        }
+
+        for (int i = 0; i < Math.min(WARMUP_ROUTES, routes.size()); i++) {
+            Route route = routes.get(i);
+            search(route.teleports ? withTeleports : withoutTeleports, route);
+        }
+
+        int failures = 0;
+        long baselineMillis = 0;
+        long totalMillis = 0;
+        for (Route route : routes) {
+            final long startNanos = System.nanoTime();
+            Pathfinder pathfinder = search(route.teleports ? withTeleports : withoutTeleports, route);
+            final long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            baselineMillis += route.millis;
+            totalMillis += millis;
+
+            PackedPath path = pathfinder.getPath();
+            final boolean reached = !path.isEmpty() && path.getWorldPoint(path.size() - 1).equals(route.target);
+            final int cost = pathfinder.getSnapshot().getCost();
+            final int expansions = pathfinder.getMetrics().getExpansions();
+
+            if (record) {
+                lines.set(route.line, route.format(cost, expansions, millis));
+                continue;
+            }
+
+            String failure = null;
+            if (!reached) {
+                failure = "target not reached";
+            } else if (cost > route.cost) {
+                failure = "cost " + cost + " > " + route.cost;
+            } else if (expansions > route.expansions * EXPANSION_THRESHOLD) {
+                failure = "expansions " + expansions + " > " + route.expansions;
+            }
+            if (failure != null) {
+                failures++;
+                System.out.println("FAIL line " + (route.line + 1) + " " + route.name() + ": " + failure);
+            } else if (cost < route.cost) {
+                System.out.println("Cheaper on line " + (route.line + 1) + " " + route.name() + ": " + cost + " < " + route.cost);
+            }
+        }
+
+        if (record) {
+            Files.write(corpus, lines, StandardCharsets.UTF_8);
+            System.out.println("Recorded " + routes.size() + " routes in " + totalMillis + " ms");
+            return;
+        }
+
+        if (totalMillis > baselineMillis * TIME_THRESHOLD) {
+            failures++;
+            System.out.println("FAIL total time " + totalMillis + " ms > " + baselineMillis + " ms");
+        }
+        System.out.println(routes.size() + " routes, " + failures + " failures, " + totalMillis + " ms (baseline " + baselineMillis + " ms)");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    private static Pathfinder search(PathfinderConfig config, Route route) {
+        config.getPathCache().clear();
+        Pathfinder pathfinder = new Pathfinder(config, route.start, route.target);
+        while (!pathfinder.isDone()) {
+            Thread.yield();
+        }
+        return pathfinder;
+    }
+
+    private static class Route {
+        final int line;
+        final WorldPoint start;
+        final WorldPoint target;
+        final boolean teleports;
+        final int cost;
+        final int expansions;
+        final long millis;
+
+        // Start, target, whether teleports are used, cost, expanded nodes and milliseconds, separated by tabs
+        Route(int line, String text) {
+            this.line = line;
+            String[] fields = text.split("\t");
+            start = parsePoint(fields[0]);
+            target = parsePoint(fields[1]);
+            teleports = Boolean.parseBoolean(fields[2]);
+            cost = Integer.parseInt(fields[3]);
+            expansions = Integer.parseInt(fields[4]);
+            millis = Long.parseLong(fields[5]);
+        }
+
+        String format(int cost, int expansions, long millis) {
+            return formatPoint(start) + "\t" + formatPoint(target) + "\t" + teleports + "\t" + cost + "\t" + expansions + "\t" + millis;
+        }
+
+        String name() {
+            return formatPoint(start) + " -> " + formatPoint(target) + (teleports ? " with teleports" : "");
+        }
+
+        private static WorldPoint parsePoint(String text) {
+            String[] parts = text.split(" ");
+            return new WorldPoint(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        }
+
+        private static String formatPoint(WorldPoint point) {
+            return point.getX() + " " + point.getY() + " " + point.getPlane();
+        }
+    }
+}
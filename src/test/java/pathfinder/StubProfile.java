@@ -0,0 +1,151 @@
+package pathfinder;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.ItemSearchLocation;
+import shortestpath.ShortestPathConfig;
+import shortestpath.ShortestPathPlugin;
+import shortestpath.Transport;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Requirements profile for running searches without a client: a logged in player with 99 in every skill,
+ * every quest finished, the standard spellbook and no coins, with every kind of transport enabled and
+ * items assumed to be on hand. Searches with it do not depend on who is running them.
+ * Without teleports, the profile leaves out teleports, spells and items so that searches walk.
+ */
+public class StubProfile {
+    public static PathfinderConfig pathfinderConfig(SplitFlagMap map, Map<WorldPoint, List<Transport>> transports) {
+        return pathfinderConfig(map, transports, true);
+    }
+
+    public static PathfinderConfig pathfinderConfig(SplitFlagMap map, Map<WorldPoint, List<Transport>> transports, boolean teleports) {
+        return pathfinderConfig(map, transports, teleports, "");
+    }
+
+    /**
+     * @param costAreas cost areas in the format of the cost areas setting
+     */
+    public static PathfinderConfig pathfinderConfig(SplitFlagMap map, Map<WorldPoint, List<Transport>> transports, boolean teleports,
+                                                    String costAreas) {
+        return new PathfinderConfig(map, transports, client(), config(teleports, costAreas), new ShortestPathPlugin());
+    }
+
+    public static ShortestPathConfig config(boolean teleports) {
+        return config(teleports, "");
+    }
+
+    public static ShortestPathConfig config(boolean teleports, String costAreas) {
+        return new ShortestPathConfig() {
+            @Override
+            public boolean useGrappleShortcuts() {
+                return true;
+            }
+
+            @Override
+            public boolean useFairyRings() {
+                return true;
+            }
+
+            @Override
+            public boolean useTeleports() {
+                return teleports;
+            }
+
+            @Override
+            public boolean useSpiritTree() {
+                return true;
+            }
+
+            @Override
+            public boolean useGnomeGlider() {
+                return true;
+            }
+
+            @Override
+            public boolean useItems() {
+                return teleports;
+            }
+
+            @Override
+            public boolean useSpells() {
+                return teleports;
+            }
+
+            @Override
+            public ItemSearchLocation itemsLocation() {
+                return ItemSearchLocation.NONE;
+            }
+
+            // Long enough that no search of the corpus is cut off
+            @Override
+            public int calculationCutoff() {
+                return 1000;
+            }
+
+            // Only the exact search, so its work is measured on its own
+            @Override
+            public boolean anytimeSearch() {
+                return false;
+            }
+
+            @Override
+            public String costAreas() {
+                return costAreas;
+            }
+        };
+    }
+
+    /**
+     * A client that answers the few calls the pathfinder config makes; anything else returns zero, false or null.
+     */
+    public static Client client() {
+        return (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getGameState":
+                    return GameState.LOGGED_IN;
+                case "getClientThread":
+                    return Thread.currentThread();
+                case "getBoostedSkillLevel":
+                case "getRealSkillLevel":
+                    return 99;
+                case "getIntStack":
+                    return new int[]{2}; // The quest state script returns 2 for finished quests
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StubProfile client";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+}
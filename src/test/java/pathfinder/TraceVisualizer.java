@@ -0,0 +1,282 @@
+package pathfinder;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import shortestpath.WorldPointUtil;
+import shortestpath.pathfinder.CollisionMap;
+import shortestpath.pathfinder.SearchTrace;
+import shortestpath.pathfinder.SplitFlagMap;
+
+/**
+ * Replays a search trace into an image of the area the search explored, and prints how the work was spread
+ * over the phases of the search and the regions it went through.
+ * <p>
+ * Usage: TraceVisualizer [--plane n] [--scale n] trace file [image file]. Expanded tiles are coloured from blue
+ * for the first to red for the last, over blocked tiles in grey. The chosen path is white with its transports
+ * in yellow, the start green and the target magenta. Only one plane is drawn, by default the plane of the start.
+ */
+public class TraceVisualizer {
+    private static final String[] PHASES = {"splice", "quick", "exact", "reachable"};
+    private static final int MAX_IMAGE_SIZE = 8192;
+    private static final int TOP_REGIONS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int plane = -1;
+        int scale = 2;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--plane".equals(args[i])) {
+                plane = Integer.parseInt(args[++i]);
+            } else if ("--scale".equals(args[i])) {
+                scale = Integer.parseInt(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: TraceVisualizer [--plane n] [--scale n] <trace file> [image file]");
+            System.exit(1);
+        }
+        File traceFile = new File(files.get(0));
+        File imageFile = new File(files.size() > 1 ? files.get(1) : files.get(0) + ".png");
+
+        Summary summary = new Summary(plane);
+        SearchTrace.read(traceFile, summary);
+        summary.print();
+        if (summary.minX > summary.maxX) {
+            System.out.println("Nothing was expanded on plane " + summary.plane);
+            return;
+        }
+
+        final int width = summary.maxX - summary.minX + 1;
+        final int height = summary.maxY - summary.minY + 1;
+        while (scale > 1 && Math.max(width, height) * scale > MAX_IMAGE_SIZE) {
+            scale--;
+        }
+        Image image = new Image(summary, scale);
+        image.drawCollision(new CollisionMap(SplitFlagMap.fromResources()));
+        SearchTrace.read(traceFile, image);
+        ImageIO.write(image.image, "png", imageFile);
+        System.out.println("Wrote " + image.image.getWidth() + "x" + image.image.getHeight() + " " + imageFile);
+    }
+
+    private static class PathNode {
+        final int position;
+        final String transport;
+
+        PathNode(int position, String transport) {
+            this.position = position;
+            this.transport = transport;
+        }
+    }
+
+    /**
+     * First pass: counts the expansions and finds the bounds of what was explored on the drawn plane.
+     */
+    private static class Summary implements SearchTrace.Visitor {
+        int plane;
+        int start;
+        int target;
+        long timeMillis;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int expansions;
+        final List<String> phases = new ArrayList<>();
+        final List<Integer> phaseExpansions = new ArrayList<>();
+        final Map<Integer, Integer> regionExpansions = new HashMap<>();
+        final List<PathNode> path = new ArrayList<>();
+        int pathCost;
+        String end = "the trace ends before the search finished";
+
+        Summary(int plane) {
+            this.plane = plane;
+        }
+
+        @Override
+        public void start(int startPacked, int targetPacked, long timeMillis) {
+            start = startPacked;
+            target = targetPacked;
+            this.timeMillis = timeMillis;
+            if (plane < 0) {
+                plane = WorldPointUtil.unpackWorldPlane(startPacked);
+            }
+            include(startPacked);
+            if (targetPacked != -1) {
+                include(targetPacked);
+            }
+        }
+
+        @Override
+        public void phase(int kind, int weight) {
+            phases.add(kind < PHASES.length ? PHASES[kind] + (kind == SearchTrace.PHASE_QUICK ? " x" + weight : "") : "phase " + kind);
+            phaseExpansions.add(0);
+        }
+
+        @Override
+        public void expanded(int packedPosition, int cost) {
+            expansions++;
+            phaseExpansions.set(phaseExpansions.size() - 1, phaseExpansions.get(phaseExpansions.size() - 1) + 1);
+            final int region = (WorldPointUtil.unpackWorldX(packedPosition) >> 6) << 8 | (WorldPointUtil.unpackWorldY(packedPosition) >> 6);
+            regionExpansions.merge(region, 1, Integer::sum);
+            include(packedPosition);
+        }
+
+        @Override
+        public void pathNode(int packedPosition, int cost, String transport) {
+            path.add(new PathNode(packedPosition, transport));
+            pathCost = cost;
+            include(packedPosition);
+        }
+
+        @Override
+        public void end(boolean targetReached, boolean cutoff, boolean cancelled) {
+            end = cancelled ? "cancelled" : cutoff ? "cut off" : targetReached ? "target reached" : "target not reached";
+        }
+
+        private void include(int packedPosition) {
+            if (WorldPointUtil.unpackWorldPlane(packedPosition) != plane) {
+                return;
+            }
+            final int x = WorldPointUtil.unpackWorldX(packedPosition);
+            final int y = WorldPointUtil.unpackWorldY(packedPosition);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+
+        void print() {
+            System.out.println(format(start) + " -> " + (target == -1 ? "no target" : format(target)) +
+                ", searched at " + new Date(timeMillis) + ", " + end);
+            System.out.println(expansions + " expansions");
+            for (int i = 0; i < phases.size(); i++) {
+                System.out.println("  " + phases.get(i) + ": " + phaseExpansions.get(i));
+            }
+
+            System.out.println("Path of " + path.size() + " nodes costing " + pathCost);
+            for (PathNode node : path) {
+                if (!node.transport.isEmpty()) {
+                    System.out.println("  " + node.transport + " to " + format(node.position));
+                }
+            }
+
+            System.out.println("Regions with the most expansions of " + regionExpansions.size());
+            regionExpansions.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .limit(TOP_REGIONS)
+                .forEach(e -> System.out.println("  " + e.getKey() + " (" + ((e.getKey() >> 8) << 6) + ", " +
+                    ((e.getKey() & 0xFF) << 6) + "): " + e.getValue()));
+        }
+
+        private static String format(int packedPosition) {
+            return "(" + WorldPointUtil.unpackWorldX(packedPosition) + ", " + WorldPointUtil.unpackWorldY(packedPosition) +
+                ", " + WorldPointUtil.unpackWorldPlane(packedPosition) + ")";
+        }
+    }
+
+    /**
+     * Second pass: draws the expansions in order, then the path on top of them.
+     */
+    private static class Image implements SearchTrace.Visitor {
+        final Summary summary;
+        final int scale;
+        final BufferedImage image;
+        int expanded;
+
+        Image(Summary summary, int scale) {
+            this.summary = summary;
+            this.scale = scale;
+            image = new BufferedImage((summary.maxX - summary.minX + 1) * scale, (summary.maxY - summary.minY + 1) * scale,
+                BufferedImage.TYPE_INT_RGB);
+        }
+
+        void drawCollision(CollisionMap map) {
+            final int blocked = new Color(60, 60, 60).getRGB();
+            for (int x = summary.minX; x <= summary.maxX; x++) {
+                for (int y = summary.minY; y <= summary.maxY; y++) {
+                    if (map.isBlocked(x, y, summary.plane)) {
+                        fill(x, y, blocked);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void start(int startPacked, int targetPacked, long timeMillis) {
+        }
+
+        @Override
+        public void phase(int kind, int weight) {
+        }
+
+        @Override
+        public void expanded(int packedPosition, int cost) {
+            final float order = summary.expansions > 1 ? (float) expanded++ / (summary.expansions - 1) : 0;
+            if (WorldPointUtil.unpackWorldPlane(packedPosition) == summary.plane) {
+                fill(packedPosition, Color.HSBtoRGB(2f / 3 * (1 - order), 1, 0.8f));
+            }
+        }
+
+        @Override
+        public void pathNode(int packedPosition, int cost, String transport) {
+        }
+
+        @Override
+        public void end(boolean targetReached, boolean cutoff, boolean cancelled) {
+            // The path is drawn last so that nothing is drawn over it
+            for (PathNode node : summary.path) {
+                mark(node.position, Color.WHITE.getRGB(), 0);
+            }
+            for (PathNode node : summary.path) {
+                if (!node.transport.isEmpty()) {
+                    mark(node.position, Color.YELLOW.getRGB(), 1);
+                }
+            }
+            mark(summary.start, Color.GREEN.getRGB(), 2);
+            if (summary.target != -1) {
+                mark(summary.target, Color.MAGENTA.getRGB(), 2);
+            }
+        }
+
+        private void mark(int packedPosition, int rgb, int radius) {
+            if (WorldPointUtil.unpackWorldPlane(packedPosition) != summary.plane) {
+                return;
+            }
+            final int x = WorldPointUtil.unpackWorldX(packedPosition);
+            final int y = WorldPointUtil.unpackWorldY(packedPosition);
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dy = -radius; dy <= radius; dy++) {
+                    fill(x + dx, y + dy, rgb);
+                }
+            }
+        }
+
+        private void fill(int packedPosition, int rgb) {
+            fill(WorldPointUtil.unpackWorldX(packedPosition), WorldPointUtil.unpackWorldY(packedPosition), rgb);
+        }
+
+        // North is up, so the image is flipped vertically
+        private void fill(int x, int y, int rgb) {
+            if (x < summary.minX || x > summary.maxX || y < summary.minY || y > summary.maxY) {
+                return;
+            }
+            final int px = (x - summary.minX) * scale;
+            final int py = (summary.maxY - y) * scale;
+            for (int i = 0; i < scale; i++) {
+                for (int j = 0; j < scale; j++) {
+                    image.setRGB(px + i, py + j, rgb);
+                }
+            }
+        }
+    }
+}
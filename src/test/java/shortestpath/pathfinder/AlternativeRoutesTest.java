@@ -0,0 +1,49 @@
+package shortestpath.pathfinder;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import net.runelite.api.ItemID;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+import shortestpath.Transport;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+
+public class AlternativeRoutesTest {
+    private static final List<Transport> TRANSPORTS = Transport.loadAllFromResources().values().stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+
+    @Test
+    public void classifiesRoutesByWhatTheyTravelBy() {
+        assertEquals(AlternativeRoutes.Kind.WALKING, AlternativeRoutes.Kind.of(walk(3200, 3200)));
+        assertEquals(AlternativeRoutes.Kind.TRANSPORT, AlternativeRoutes.Kind.of(via(transport ->
+            !transport.isTeleport() && !transport.isOneWay() && !transport.isSpell() && !isPaid(transport))));
+        assertEquals(AlternativeRoutes.Kind.TELEPORT, AlternativeRoutes.Kind.of(via(transport ->
+            transport.isTeleport() && !isPaid(transport))));
+        assertEquals(AlternativeRoutes.Kind.PAID, AlternativeRoutes.Kind.of(via(AlternativeRoutesTest::isPaid)));
+    }
+
+    private static boolean isPaid(Transport transport) {
+        return transport.getItemCost(ItemID.COINS_995) > 0;
+    }
+
+    // A walk of 10 steps east from the tile
+    private static Node walk(int x, int y) {
+        Node node = new Node(WorldPointUtil.packWorldPoint(x, y, 0), null);
+        for (int i = 1; i <= 10; i++) {
+            node = new Node(WorldPointUtil.packWorldPoint(x + i, y, 0), node, 1);
+        }
+        return node;
+    }
+
+    // Walks, takes the first transport that matches and walks on from its destination
+    private static Node via(Predicate<Transport> filter) {
+        Transport transport = TRANSPORTS.stream().filter(filter).findFirst().get();
+        Node node = new TransportNode(transport.getDestination(), walk(3200, 3200), transport, 1);
+        WorldPoint destination = transport.getDestination();
+        return new Node(new WorldPoint(destination.getX() + 1, destination.getY(), destination.getPlane()), node, 1);
+    }
+}
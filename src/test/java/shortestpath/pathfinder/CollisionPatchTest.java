@@ -0,0 +1,107 @@
+package shortestpath.pathfinder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CollisionPatchTest {
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        CollisionPatch patch = new CollisionPatch();
+        patch.set(3200, 3200, 0, 0b01);
+        patch.set(3263, 3263, 3, 0b10);
+        patch.set(3264, 3200, 1, 0b11);
+        patch.set(3201, 3200, 0, 0);
+
+        CollisionPatch read = CollisionPatch.read(new ByteArrayInputStream(write(patch)));
+
+        assertEquals(patch.getRegions(), read.getRegions());
+        assertEquals(4, read.getTileCount());
+        assertEquals(tiles(patch), tiles(read));
+        assertArrayEquals(write(patch), write(read));
+    }
+
+    @Test
+    public void keepsTheLastFlagsSetForATile() throws IOException {
+        CollisionPatch patch = new CollisionPatch();
+        patch.set(3200, 3200, 0, 0b01);
+        patch.set(3200, 3200, 0, 0b10);
+        patch.set(3200, 3200, 1, 0b11);
+
+        CollisionPatch read = CollisionPatch.read(new ByteArrayInputStream(write(patch)));
+
+        assertEquals(2, read.getTileCount());
+        Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(CollisionPatch.pack(0, 0, 0, 0), 0b10);
+        expected.put(CollisionPatch.pack(0, 0, 1, 0), 0b11);
+        assertEquals(expected, tiles(read).get((3200 / 64) << 8 | (3200 / 64)));
+    }
+
+    @Test
+    public void writesTheSameFileWhateverTheOrderTilesWereSetIn() throws IOException {
+        CollisionPatch forward = new CollisionPatch();
+        CollisionPatch backward = new CollisionPatch();
+        int[][] tiles = {{3200, 3200, 0, 1}, {3300, 3100, 2, 2}, {3210, 3205, 0, 3}, {2900, 3500, 1, 1}};
+        for (int i = 0; i < tiles.length; i++) {
+            int[] tile = tiles[i];
+            forward.set(tile[0], tile[1], tile[2], tile[3]);
+            tile = tiles[tiles.length - 1 - i];
+            backward.set(tile[0], tile[1], tile[2], tile[3]);
+        }
+
+        assertArrayEquals(write(forward), write(backward));
+    }
+
+    @Test
+    public void emptyPatchRoundTrips() throws IOException {
+        CollisionPatch read = CollisionPatch.read(new ByteArrayInputStream(write(new CollisionPatch())));
+        assertTrue(read.isEmpty());
+        assertEquals(0, read.getTileCount());
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(new byte[]{1, 2, 3, 4, 0, 0, 0, 1, 0, 0, 0, 0});
+        }
+        try {
+            CollisionPatch.read(new ByteArrayInputStream(bytes.toByteArray()));
+            fail("read a file that is not a collision patch");
+        } catch (IOException expected) {
+            // Not a patch
+        }
+    }
+
+    private static byte[] write(CollisionPatch patch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        patch.write(bytes);
+        return bytes.toByteArray();
+    }
+
+    // The flags of every tile by region and by position, keeping the last flags set for a tile
+    private static Map<Integer, Map<Integer, Integer>> tiles(CollisionPatch patch) {
+        Map<Integer, Map<Integer, Integer>> tiles = new HashMap<>();
+        for (int region : new HashSet<>(patch.getRegions())) {
+            Map<Integer, Integer> flags = new HashMap<>();
+            for (int tile : Arrays.copyOf(patch.getTiles(region), patch.getTileCount(region))) {
+                final int position = CollisionPatch.pack(CollisionPatch.unpackX(tile), CollisionPatch.unpackY(tile),
+                    CollisionPatch.unpackPlane(tile), 0);
+                flags.put(position, CollisionPatch.unpackFlags(tile));
+            }
+            tiles.put(region, flags);
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,62 @@
+package shortestpath.pathfinder;
+
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CostMultipliersTest {
+    @Test
+    public void noMultipliersWithoutCostAreas() {
+        assertNull(PathfinderConfig.buildCostMultipliers(""));
+        assertNull(PathfinderConfig.buildCostMultipliers("// Nothing yet\n3200 3200 3205 3205\n"));
+        // A multiplier of 1 or less changes nothing
+        assertNull(PathfinderConfig.buildCostMultipliers("3200 3200 3205 3205 1\n3200 3200 3205 3205 0"));
+    }
+
+    @Test
+    public void costAreaIncludesItsCorners() {
+        CostMultipliers multipliers = PathfinderConfig.buildCostMultipliers("3205 3210 3200 3200 4");
+        assertEquals(4, get(multipliers, 3200, 3200, 0));
+        assertEquals(4, get(multipliers, 3205, 3210, 0));
+        assertEquals(1, get(multipliers, 3199, 3200, 0));
+        assertEquals(1, get(multipliers, 3205, 3211, 0));
+        assertEquals(1, get(multipliers, 3202, 3205, 1));
+    }
+
+    @Test
+    public void costAreaOnAnotherPlane() {
+        CostMultipliers multipliers = PathfinderConfig.buildCostMultipliers("3200 3200 3205 3205 3 1");
+        assertEquals(3, get(multipliers, 3202, 3202, 1));
+        assertEquals(1, get(multipliers, 3202, 3202, 0));
+    }
+
+    @Test
+    public void highestMultiplierCountsWhereAreasOverlap() {
+        CostMultipliers multipliers = PathfinderConfig.buildCostMultipliers("3200 3200 3210 3210 3\n3205,3205,3215,3215,5\n3200 3200 3210 3210 2");
+        assertEquals(3, get(multipliers, 3202, 3202, 0));
+        assertEquals(5, get(multipliers, 3207, 3207, 0));
+        assertEquals(5, get(multipliers, 3212, 3212, 0));
+    }
+
+    @Test
+    public void multipliersAreClamped() {
+        CostMultipliers multipliers = PathfinderConfig.buildCostMultipliers("3200 3200 3205 3205 1000");
+        assertEquals(CostMultipliers.MAX_MULTIPLIER, get(multipliers, 3202, 3202, 0));
+    }
+
+    @Test
+    public void skipsLinesThatAreNotCostAreas() {
+        CostMultipliers multipliers = PathfinderConfig.buildCostMultipliers(
+            "3200 3200 3205 3205\n3300 3300 3305 3305 2 0 9\nfoo 3400 3405 3405 2\n3500 3500 3505 3505 6\r\n");
+        assertEquals(1, get(multipliers, 3202, 3202, 0));
+        assertEquals(1, get(multipliers, 3302, 3302, 0));
+        assertEquals(1, get(multipliers, 3402, 3402, 0));
+        assertEquals(6, get(multipliers, 3502, 3502, 0));
+    }
+
+    private static int get(CostMultipliers multipliers, int x, int y, int plane) {
+        return multipliers.get(WorldPointUtil.packWorldPoint(x, y, plane));
+    }
+}
@@ -0,0 +1,91 @@
+package shortestpath.pathfinder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PathCacheTest {
+    private static final long FINGERPRINT = 0x1234_5678_9ABC_DEF0L;
+    private static final Set<WorldPoint> TARGETS = Collections.singleton(new WorldPoint(3200, 3200, 0));
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        PathCache cache = new PathCache();
+        for (int i = 0; i < PathCache.MAX_ENTRIES; i++) {
+            cache.put(start(i), TARGETS, FINGERPRINT, entry(3100 + i, 3100));
+        }
+        // Using the oldest entry makes the second oldest the least recently used one
+        assertNotNull(cache.get(start(0), TARGETS, FINGERPRINT));
+
+        cache.put(start(PathCache.MAX_ENTRIES), TARGETS, FINGERPRINT, entry(3100, 3100));
+
+        assertEquals(PathCache.MAX_ENTRIES, cache.size());
+        assertNotNull(cache.get(start(0), TARGETS, FINGERPRINT));
+        assertNull(cache.get(start(1), TARGETS, FINGERPRINT));
+        assertNotNull(cache.get(start(2), TARGETS, FINGERPRINT));
+        assertNotNull(cache.get(start(PathCache.MAX_ENTRIES), TARGETS, FINGERPRINT));
+    }
+
+    @Test
+    public void keysByStartTargetsAndFingerprint() {
+        PathCache cache = new PathCache();
+        PathCache.Entry entry = entry(3100, 3100);
+        cache.put(start(0), TARGETS, FINGERPRINT, entry);
+
+        assertSame(entry, cache.get(start(0), new HashSet<>(TARGETS), FINGERPRINT));
+        assertNull(cache.get(start(1), TARGETS, FINGERPRINT));
+        assertNull(cache.get(start(0), Collections.singleton(new WorldPoint(3201, 3200, 0)), FINGERPRINT));
+        assertNull(cache.get(start(0), TARGETS, FINGERPRINT + 1));
+    }
+
+    @Test
+    public void invalidateRemovesRoutesThroughTheRegions() {
+        PathCache cache = new PathCache();
+        // Region 48_48 is x 3072-3135 and y 3072-3135; the routes run 20 tiles east
+        cache.put(start(0), TARGETS, FINGERPRINT, entry(3100, 3100));
+        cache.put(start(1), TARGETS, FINGERPRINT, entry(3300, 3300));
+        cache.put(start(2), TARGETS, FINGERPRINT, entry(3130, 3300));
+        // Only an alternative goes through the region
+        PathCache.Entry alternative = new PathCache.Entry(TARGETS.iterator().next(), route(3300, 3400),
+            Arrays.asList(route(3300, 3400), route(3100, 3110)));
+        cache.put(start(3), TARGETS, FINGERPRINT, alternative);
+
+        cache.invalidate(Collections.singleton(PathCache.regionId(WorldPointUtil.packWorldPoint(3100, 3100, 0))));
+
+        assertNull(cache.get(start(0), TARGETS, FINGERPRINT));
+        assertNotNull(cache.get(start(1), TARGETS, FINGERPRINT));
+        assertNotNull(cache.get(start(2), TARGETS, FINGERPRINT));
+        assertNull(cache.get(start(3), TARGETS, FINGERPRINT));
+
+        // Crossing into the next region east, 3136 and up
+        cache.invalidate(Collections.singleton(PathCache.regionId(WorldPointUtil.packWorldPoint(3140, 3300, 0))));
+        assertNull(cache.get(start(2), TARGETS, FINGERPRINT));
+        assertEquals(1, cache.size());
+    }
+
+    private static int start(int i) {
+        return WorldPointUtil.packWorldPoint(2900 + i, 3000, 0);
+    }
+
+    private static PathCache.Entry entry(int x, int y) {
+        return new PathCache.Entry(TARGETS.iterator().next(), route(x, y), Collections.emptyList());
+    }
+
+    // A walking route of 20 steps east from the tile
+    private static Node route(int x, int y) {
+        Node node = new Node(WorldPointUtil.packWorldPoint(x, y, 0), null);
+        for (int i = 1; i <= 20; i++) {
+            node = new Node(WorldPointUtil.packWorldPoint(x + i, y, 0), node, 1);
+        }
+        return node;
+    }
+}
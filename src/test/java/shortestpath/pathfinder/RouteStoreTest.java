@@ -0,0 +1,225 @@
+package shortestpath.pathfinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pathfinder.StubProfile;
+import shortestpath.Transport;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RouteStoreTest {
+    private static final long FINGERPRINT = 0x0123_4567_89AB_CDEFL;
+    private static final int HEADER_SIZE = 20;
+    private static final int COUNT_OFFSET = 16;
+
+    private static PathfinderConfig config;
+    private static SearchSettings settings;
+    // A transport the config can use, to store a route that takes it
+    private static Transport transport;
+
+    private File file;
+    private RouteStore store;
+
+    @BeforeClass
+    public static void loadConfig() {
+        config = StubProfile.pathfinderConfig(SplitFlagMap.fromResources(), Transport.loadAllFromResources(), false);
+        settings = config.getSearchSettings();
+        int origin = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, List<Transport>> entry : config.getTransportsPacked().entrySet()) {
+            if (entry.getKey() != null && entry.getKey() < origin) {
+                origin = entry.getKey();
+                transport = entry.getValue().get(0);
+            }
+        }
+    }
+
+    @Before
+    public void openStore() throws IOException {
+        file = File.createTempFile("routes", ".bin");
+        store = open();
+    }
+
+    @After
+    public void deleteStore() {
+        store.close();
+        file.delete();
+    }
+
+    @Test
+    public void readsRoutesBackAfterReopening() {
+        Node walk = walk(3200, 3200, 120);
+        Node viaTransport = viaTransport();
+        store.put(start(walk), targets(walk), FINGERPRINT, entry(walk));
+        store.put(start(viaTransport), targets(viaTransport), FINGERPRINT, entry(viaTransport));
+
+        store = reopen();
+
+        assertRoute(walk, store.get(start(walk), targets(walk), FINGERPRINT, config, settings));
+        PathCache.Entry stored = store.get(start(viaTransport), targets(viaTransport), FINGERPRINT, config, settings);
+        assertRoute(viaTransport, stored);
+        Node node = stored.getLastNode();
+        while (!(node instanceof TransportNode)) {
+            node = node.previous;
+        }
+        assertSame(transport, ((TransportNode) node).getTransport());
+        assertNull(store.get(start(walk), targets(walk), FINGERPRINT + 1, config, settings));
+    }
+
+    @Test
+    public void leavesOutShortRoutesAndRoutesWithAlternatives() {
+        Node shortWalk = walk(3200, 3200, 50);
+        Node walk = walk(3200, 3300, 120);
+        store.put(start(shortWalk), targets(shortWalk), FINGERPRINT, entry(shortWalk));
+        store.put(start(walk), targets(walk), FINGERPRINT, new PathCache.Entry(
+            WorldPointUtil.unpackWorldPoint(walk.packedPosition), walk, Collections.singletonList(walk)));
+
+        assertNull(store.get(start(shortWalk), targets(shortWalk), FINGERPRINT, config, settings));
+        assertNull(store.get(start(walk), targets(walk), FINGERPRINT, config, settings));
+    }
+
+    @Test
+    public void invalidatedRoutesComeBackAfterReopening() {
+        Node walk = walk(3200, 3200, 120);
+        Node elsewhere = walk(2600, 3100, 120);
+        store.put(start(walk), targets(walk), FINGERPRINT, entry(walk));
+        store.put(start(elsewhere), targets(elsewhere), FINGERPRINT, entry(elsewhere));
+
+        store.invalidate(Collections.singleton(PathCache.regionId(walk.packedPosition)));
+
+        assertNull(store.get(start(walk), targets(walk), FINGERPRINT, config, settings));
+        assertRoute(elsewhere, store.get(start(elsewhere), targets(elsewhere), FINGERPRINT, config, settings));
+
+        store = reopen();
+
+        assertRoute(walk, store.get(start(walk), targets(walk), FINGERPRINT, config, settings));
+    }
+
+    @Test
+    public void dropsTruncatedEntryAndWritesOverIt() throws IOException {
+        Node first = walk(3200, 3200, 120);
+        Node second = walk(3200, 3300, 120);
+        store.put(start(first), targets(first), FINGERPRINT, entry(first));
+        store.put(start(second), targets(second), FINGERPRINT, entry(second));
+        store.close();
+
+        // Cut the file off halfway through the second entry, with the header still counting it
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(HEADER_SIZE + size(first) + size(second) / 2);
+        }
+        store = open();
+
+        assertRoute(first, store.get(start(first), targets(first), FINGERPRINT, config, settings));
+        assertNull(store.get(start(second), targets(second), FINGERPRINT, config, settings));
+
+        Node third = walk(2600, 3100, 150);
+        store.put(start(third), targets(third), FINGERPRINT, entry(third));
+        store = reopen();
+
+        assertRoute(first, store.get(start(first), targets(first), FINGERPRINT, config, settings));
+        assertNull(store.get(start(second), targets(second), FINGERPRINT, config, settings));
+        assertRoute(third, store.get(start(third), targets(third), FINGERPRINT, config, settings));
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.seek(COUNT_OFFSET);
+            assertEquals(2, input.readInt());
+        }
+    }
+
+    @Test
+    public void startsOverAFileOfAnotherFormat() throws IOException {
+        store.close();
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(0);
+            output.writeInt(0xCAFEBABE);
+            output.write(new byte[100]);
+        }
+        store = open();
+
+        Node walk = walk(3200, 3200, 120);
+        store.put(start(walk), targets(walk), FINGERPRINT, entry(walk));
+        store = reopen();
+
+        assertRoute(walk, store.get(start(walk), targets(walk), FINGERPRINT, config, settings));
+    }
+
+    private RouteStore open() {
+        RouteStore opened = new RouteStore(file);
+        opened.open();
+        return opened;
+    }
+
+    private RouteStore reopen() {
+        store.close();
+        return open();
+    }
+
+    private static void assertRoute(Node expected, PathCache.Entry stored) {
+        assertNotNull(stored);
+        assertEquals(WorldPointUtil.unpackWorldPoint(expected.packedPosition), stored.getTarget());
+        assertEquals(expected.getPathPacked(), stored.getLastNode().getPathPacked());
+        assertEquals(expected.cost, stored.getLastNode().cost);
+        assertTrue(stored.getRoutes().isEmpty());
+    }
+
+    // A walking route of the number of steps north from the tile
+    private static Node walk(int x, int y, int steps) {
+        return walkOn(new Node(WorldPointUtil.packWorldPoint(x, y, 0), null), steps);
+    }
+
+    private static Node walkOn(Node node, int steps) {
+        for (int i = 0; i < steps; i++) {
+            final int next = WorldPointUtil.packWorldPoint(WorldPointUtil.unpackWorldX(node.packedPosition),
+                WorldPointUtil.unpackWorldY(node.packedPosition) + 1, WorldPointUtil.unpackWorldPlane(node.packedPosition));
+            node = new Node(next, node, settings.getStepCost(next));
+        }
+        return node;
+    }
+
+    // Walks up to the transport origin, takes the transport and walks on from its destination
+    private static Node viaTransport() {
+        final WorldPoint origin = transport.getOrigin();
+        Node node = walkOn(new Node(new WorldPoint(origin.getX(), origin.getY() - 110, origin.getPlane()), null), 110);
+        node = new TransportNode(transport.getDestination(), node, transport, settings.getCostModel().getTransportCost(transport));
+        return walkOn(node, 10);
+    }
+
+    private static int start(Node lastNode) {
+        Node node = lastNode;
+        while (node.previous != null) {
+            node = node.previous;
+        }
+        return node.packedPosition;
+    }
+
+    private static Set<WorldPoint> targets(Node lastNode) {
+        return Collections.singleton(WorldPointUtil.unpackWorldPoint(lastNode.packedPosition));
+    }
+
+    private static PathCache.Entry entry(Node lastNode) {
+        return new PathCache.Entry(WorldPointUtil.unpackWorldPoint(lastNode.packedPosition), lastNode, Collections.emptyList());
+    }
+
+    // The size of the entry of a route with one target, as laid out by RouteStore.put
+    private static int size(Node lastNode) {
+        Set<Integer> regions = new HashSet<>();
+        for (Node node = lastNode; node != null; node = node.previous) {
+            regions.add(PathCache.regionId(node.packedPosition));
+        }
+        return 8 + 4 * (5 + 1 + regions.size()) + 5 * (lastNode.steps + 1);
+    }
+}
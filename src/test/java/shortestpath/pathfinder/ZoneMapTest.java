@@ -0,0 +1,77 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+import shortestpath.WorldPointUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ZoneMapTest {
+    @Test
+    public void wildernessMatchesItsAreas() {
+        ZoneMap zones = PathfinderConfig.buildZoneMap("");
+        int[][] points = {
+            {2944, 3523, 0}, {3391, 3970, 0}, {2943, 3523, 0}, {2944, 3522, 0}, {3392, 3600, 0}, {3100, 3600, 1},
+            {3000, 10000, 0}, {3263, 10359, 0}, {3264, 10000, 0}, {3200, 3200, 0}
+        };
+        for (int[] point : points) {
+            final int packed = WorldPointUtil.packWorldPoint(point[0], point[1], point[2]);
+            assertEquals(point[0] + " " + point[1] + " " + point[2],
+                PathfinderConfig.isInWilderness(new WorldPoint(point[0], point[1], point[2])),
+                (zones.get(packed) & ZoneMap.WILDERNESS) != 0);
+        }
+        assertEquals(0, zones.get(3200, 3200, 0));
+    }
+
+    @Test
+    public void avoidAreaIncludesItsCorners() {
+        ZoneMap zones = PathfinderConfig.buildZoneMap("3200 3200 3205 3210");
+        assertTrue(isAvoided(zones, 3200, 3200, 0));
+        assertTrue(isAvoided(zones, 3205, 3210, 0));
+        assertTrue(isAvoided(zones, 3202, 3205, 0));
+        assertFalse(isAvoided(zones, 3199, 3200, 0));
+        assertFalse(isAvoided(zones, 3206, 3210, 0));
+        assertFalse(isAvoided(zones, 3205, 3211, 0));
+        assertFalse(isAvoided(zones, 3202, 3205, 1));
+    }
+
+    @Test
+    public void avoidAreaCornersMayBeInAnyOrder() {
+        ZoneMap zones = PathfinderConfig.buildZoneMap("3205 3200 3200 3210");
+        assertTrue(isAvoided(zones, 3200, 3210, 0));
+        assertTrue(isAvoided(zones, 3205, 3200, 0));
+        assertFalse(isAvoided(zones, 3206, 3205, 0));
+    }
+
+    @Test
+    public void avoidAreaOnAnotherPlane() {
+        ZoneMap zones = PathfinderConfig.buildZoneMap("3200 3200 3205 3205 2");
+        assertTrue(isAvoided(zones, 3202, 3202, 2));
+        assertFalse(isAvoided(zones, 3202, 3202, 0));
+        assertFalse(isAvoided(zones, 3202, 3202, 1));
+    }
+
+    @Test
+    public void skipsLinesThatAreNotAreas() {
+        ZoneMap zones = PathfinderConfig.buildZoneMap(
+            "// Lumbridge\n3200 3200 3205 3205\n\n3300 3300 3305\n3400 3400 3405 3405 0 7\nfoo 3500 3505 3505\n 3000,3000, 3005 ,3005 \r\n");
+        assertTrue(isAvoided(zones, 3202, 3202, 0));
+        assertFalse(isAvoided(zones, 3302, 3302, 0));
+        assertFalse(isAvoided(zones, 3402, 3402, 0));
+        assertFalse(isAvoided(zones, 3502, 3502, 0));
+        assertTrue(isAvoided(zones, 3002, 3002, 0));
+    }
+
+    @Test
+    public void avoidAreaInTheWildernessIsInBothZones() {
+        ZoneMap zones = PathfinderConfig.buildZoneMap("3000 3600 3010 3610");
+        assertEquals(ZoneMap.WILDERNESS | ZoneMap.AVOID, zones.get(3005, 3605, 0));
+        assertEquals(ZoneMap.WILDERNESS, zones.get(3020, 3605, 0));
+    }
+
+    private static boolean isAvoided(ZoneMap zones, int x, int y, int plane) {
+        return (zones.get(x, y, plane) & ZoneMap.AVOID) != 0;
+    }
+}